@@ -0,0 +1,75 @@
+package org.example.benchmark;
+
+import org.example.business.AppointmentMapper;
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
+import org.example.persistance.entity.AppointmentEntity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic history for one therapist and one patient: hourly 30-minute slots, half of them
+ * in the past (completed, expired or cancelled), half ahead (mostly available, every fourth
+ * booked). Slots never overlap, so the same rows can be inserted into Postgres.
+ */
+final class BenchmarkData {
+
+    static final String THERAPIST = "bench-therapist";
+    static final String PATIENT = "bench-patient";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Entities without ids, ready to be saved.
+     */
+    static List<AppointmentEntity> history(int size, LocalDateTime now) {
+        LocalDateTime first = now.truncatedTo(ChronoUnit.HOURS).minusHours(size / 2);
+        List<AppointmentEntity> entities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime start = first.plusHours(i);
+            AppointmentStatus status = statusOf(i, start.isBefore(now));
+            boolean hasPatient = status == AppointmentStatus.BOOKED || status == AppointmentStatus.COMPLETED;
+            entities.add(AppointmentEntity.builder()
+                    .therapistKeycloakId(THERAPIST)
+                    .patientKeycloakId(hasPatient ? PATIENT : null)
+                    .startTime(start)
+                    .endTime(start.plusMinutes(30))
+                    .status(status)
+                    .notes(hasPatient ? "Patient notes: benchmark" : null)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .version(0L)
+                    .build());
+        }
+        return entities;
+    }
+
+    /**
+     * The same history as domain objects with ids, as the database would return them.
+     */
+    static List<Appointment> appointments(int size, LocalDateTime now) {
+        List<AppointmentEntity> entities = history(size, now);
+        List<Appointment> appointments = new ArrayList<>(size);
+        for (int i = 0; i < entities.size(); i++) {
+            AppointmentEntity entity = entities.get(i);
+            entity.setId(i + 1L);
+            appointments.add(AppointmentMapper.toAppointment(entity));
+        }
+        return appointments;
+    }
+
+    private static AppointmentStatus statusOf(int i, boolean past) {
+        if (past) {
+            return switch (i % 3) {
+                case 0 -> AppointmentStatus.COMPLETED;
+                case 1 -> AppointmentStatus.EXPIRED;
+                default -> AppointmentStatus.CANCELLED;
+            };
+        }
+        return i % 4 == 0 ? AppointmentStatus.BOOKED : AppointmentStatus.AVAILABLE;
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.example.SchedullingServiceApplication;
+import org.example.business.CreateAppointment;
+import org.example.business.GetAvailableSlots;
+import org.example.business.GetUserAppointments;
+import org.example.business.exception.AppointmentConflictException;
+import org.example.domain.Appointment;
+import org.example.persistance.AppointmentRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The services wired as in production against an embedded Postgres seeded with the
+ * benchmark history, so query plans, the projections and the overlap exclusion
+ * constraint are all part of the measurement. RabbitMQ is not needed: listeners do not
+ * start and the outbox relay only logs that it cannot connect.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DatabaseBenchmark {
+
+    @Param({"100", "10000"})
+    int historySize;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private GetAvailableSlots getAvailableSlots;
+    private GetUserAppointments getUserAppointments;
+    private CreateAppointment createAppointment;
+    private LocalDateTime takenStart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        // Command-line arguments, so they win over application.yml
+        context = new SpringApplicationBuilder(SchedullingServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.example=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--spring.rabbitmq.listener.simple.auto-startup=false",
+                        "--scheduling.availability-index.enabled=false",
+                        "--scheduling.outbox.poll-interval-ms=3600000",
+                        "--scheduling.lifecycle.interval-ms=3600000");
+
+        AppointmentRepository repository = context.getBean(AppointmentRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+        repository.saveAll(BenchmarkData.history(historySize, now));
+
+        getAvailableSlots = context.getBean(GetAvailableSlots.class);
+        getUserAppointments = context.getBean(GetUserAppointments.class);
+        createAppointment = context.getBean(CreateAppointment.class);
+        takenStart = repository.findAvailableSlots(BenchmarkData.THERAPIST, now).get(0).getStartTime();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public List<Appointment> getAvailable() {
+        return getAvailableSlots.getAvailable(BenchmarkData.THERAPIST);
+    }
+
+    @Benchmark
+    public List<Appointment> getUserAppointments() {
+        return getUserAppointments.getUserAppointments(BenchmarkData.PATIENT);
+    }
+
+    /**
+     * A create that overlaps an existing slot: insert, constraint check and rollback.
+     */
+    @Benchmark
+    public Object createConflicting() {
+        try {
+            return createAppointment.create(BenchmarkData.THERAPIST, takenStart, takenStart.plusMinutes(30), null);
+        } catch (AppointmentConflictException e) {
+            return e;
+        }
+    }
+}
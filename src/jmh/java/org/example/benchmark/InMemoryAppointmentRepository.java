@@ -0,0 +1,87 @@
+package org.example.benchmark;
+
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
+import org.example.persistance.AppointmentArchiveRepository;
+import org.example.persistance.AppointmentRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stand-in for the read queries the services use, answering from a list sorted by start
+ * time. Isolates service and mapping cost from the database; any other repository method
+ * throws so a benchmark cannot silently measure a no-op.
+ */
+final class InMemoryAppointmentRepository implements InvocationHandler {
+
+    private final List<Appointment> appointments;
+
+    private InMemoryAppointmentRepository(List<Appointment> appointments) {
+        this.appointments = List.copyOf(appointments);
+    }
+
+    static AppointmentRepository of(List<Appointment> appointments) {
+        return (AppointmentRepository) Proxy.newProxyInstance(
+                AppointmentRepository.class.getClassLoader(),
+                new Class<?>[]{AppointmentRepository.class},
+                new InMemoryAppointmentRepository(appointments));
+    }
+
+    /**
+     * An archive with nothing in it, so the user-list benchmarks measure the live rows plus
+     * the merge check only.
+     */
+    static AppointmentArchiveRepository emptyArchive() {
+        return (AppointmentArchiveRepository) Proxy.newProxyInstance(
+                AppointmentArchiveRepository.class.getClassLoader(),
+                new Class<?>[]{AppointmentArchiveRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findPatientAppointments" -> List.of();
+                    case "toString" -> "EmptyAppointmentArchiveRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "findAvailableSlots" -> findAvailableSlots((String) args[0], (LocalDateTime) args[1]);
+            case "findUserAppointments" -> findUserAppointments((String) args[0]);
+            case "toString" -> "InMemoryAppointmentRepository";
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private List<Appointment> findAvailableSlots(String therapistKeycloakId, LocalDateTime after) {
+        return appointments.stream()
+                .filter(a -> a.getTherapistKeycloakId().equals(therapistKeycloakId))
+                .filter(a -> a.getStatus() == AppointmentStatus.AVAILABLE)
+                .filter(a -> a.getStartTime().isAfter(after))
+                .map(a -> copy(a, null))
+                .toList();
+    }
+
+    private List<Appointment> findUserAppointments(String userKeycloakId) {
+        return appointments.stream()
+                .filter(a -> userKeycloakId.equals(a.getPatientKeycloakId())
+                        || (a.getTherapistKeycloakId().equals(userKeycloakId)
+                        && a.getStatus() == AppointmentStatus.BOOKED && a.getPatientKeycloakId() != null))
+                .map(a -> copy(a, userKeycloakId.equals(a.getPatientKeycloakId()) ? "PATIENT" : "THERAPIST"))
+                .toList();
+    }
+
+    // Projections return fresh objects per query; so does the stand-in
+    private Appointment copy(Appointment a, String role) {
+        return new Appointment(a.getId(), a.getTherapistKeycloakId(), a.getPatientKeycloakId(),
+                a.getStartTime(), a.getEndTime(), a.getStatus(), a.getNotes(),
+                a.getCreatedAt(), a.getUpdatedAt(), a.getVersion(), role);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.benchmark;
+
+import org.example.business.AvailabilityIndex;
+import org.example.business.impl.GetAvailableSlotsImpl;
+import org.example.business.impl.GetUserAppointmentsImpl;
+import org.example.domain.Appointment;
+import org.example.persistance.AppointmentRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read services against the in-memory repository stand-in: the cost the service layer
+ * adds on top of the query, with and without the availability index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InMemoryServicesBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int historySize;
+
+    @Param({"false", "true"})
+    boolean availabilityIndex;
+
+    private GetAvailableSlotsImpl getAvailableSlots;
+    private GetUserAppointmentsImpl getUserAppointments;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AppointmentRepository repository = InMemoryAppointmentRepository.of(
+                BenchmarkData.appointments(historySize, LocalDateTime.now()));
+        getAvailableSlots = new GetAvailableSlotsImpl(repository,
+                new AvailabilityIndex(availabilityIndex, Duration.ofHours(1)));
+        getUserAppointments = new GetUserAppointmentsImpl(repository, InMemoryAppointmentRepository.emptyArchive());
+    }
+
+    @Benchmark
+    public List<Appointment> getAvailable() {
+        return getAvailableSlots.getAvailable(BenchmarkData.THERAPIST);
+    }
+
+    @Benchmark
+    public List<Appointment> getUserAppointments() {
+        return getUserAppointments.getUserAppointments(BenchmarkData.PATIENT);
+    }
+}
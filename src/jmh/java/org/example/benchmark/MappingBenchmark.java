@@ -0,0 +1,59 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.business.AppointmentMapper;
+import org.example.domain.Appointment;
+import org.example.persistance.entity.AppointmentEntity;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to domain mapping on the write paths, and the JSON the controller writes for a
+ * list of appointments (mapped to AppointmentResponse first).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int historySize;
+
+    private List<AppointmentEntity> entities;
+    private List<Appointment> appointments;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        entities = BenchmarkData.history(historySize, now);
+        appointments = BenchmarkData.appointments(historySize, now);
+        // Same settings Spring Boot applies to the MVC ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Benchmark
+    public List<Appointment> mapEntities() {
+        return entities.stream()
+                .map(AppointmentMapper::toAppointment)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializeAppointments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(AppointmentMapper.toResponses(appointments));
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(AppointmentMapper.toResponses(mapEntities()));
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.business;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.business.dto.AppointmentEvent;
+import org.example.domain.Appointment;
+import org.example.persistance.OutboxEventRepository;
+import org.example.persistance.entity.OutboxEventEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records appointment domain events in the outbox table. Must be called inside the
+ * transaction that changes the appointment; {@link AppointmentEventRelay} publishes them.
+ */
+@Component
+@RequiredArgsConstructor
+public class AppointmentEventOutbox {
+
+    public static final String APPOINTMENT_CREATED = "appointment.created";
+    public static final String APPOINTMENT_BOOKED = "appointment.booked";
+    public static final String APPOINTMENT_CANCELLED = "appointment.cancelled";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public void append(String eventType, Appointment appointment) {
+        outboxEventRepository.save(toOutboxEvent(eventType, appointment, LocalDateTime.now()));
+    }
+
+    public void appendAll(String eventType, List<Appointment> appointments) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.saveAll(appointments.stream()
+                .map(appointment -> toOutboxEvent(eventType, appointment, now))
+                .collect(Collectors.toList()));
+    }
+
+    private OutboxEventEntity toOutboxEvent(String eventType, Appointment appointment, LocalDateTime occurredAt) {
+        AppointmentEvent event = AppointmentEvent.builder()
+                .eventType(eventType)
+                .appointmentId(appointment.getId())
+                .therapistKeycloakId(appointment.getTherapistKeycloakId())
+                .patientKeycloakId(appointment.getPatientKeycloakId())
+                .startTime(appointment.getStartTime())
+                .endTime(appointment.getEndTime())
+                .status(appointment.getStatus())
+                .version(appointment.getVersion())
+                .occurredAt(occurredAt)
+                .build();
+        try {
+            return OutboxEventEntity.builder()
+                    .eventType(eventType)
+                    .aggregateId(appointment.getId())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize appointment event", e);
+        }
+    }
+}
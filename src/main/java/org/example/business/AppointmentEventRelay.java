@@ -0,0 +1,146 @@
+package org.example.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.RabbitMQConfig;
+import org.example.persistance.OutboxEventRepository;
+import org.example.persistance.entity.OutboxEventEntity;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Drains the outbox to appointment.events.exchange. Each batch is published with publisher
+ * confirms and deleted in the transaction that locked it, so an event is removed only after
+ * the broker has accepted it. A failure leaves the batch for the next run (at-least-once)
+ * and backs off the following runs.
+ *
+ * <p>Only one replica relays at a time and events go out in creation order, so the events
+ * of one appointment are published in the order they were committed. Redeliveries can still
+ * repeat an earlier event; consumers use the appointment version in the payload to ignore
+ * stale or repeated ones.
+ */
+@Component
+@Slf4j
+public class AppointmentEventRelay {
+
+    static final String FAILURES = "scheduling.outbox.relay.failures";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+    private final Duration maxBackoff;
+    private final Counter brokerFailures;
+    private final Counter databaseFailures;
+
+    // Only touched by the scheduler thread
+    private int consecutiveFailures;
+    private Instant retryAt = Instant.MIN;
+
+    public AppointmentEventRelay(OutboxEventRepository outboxEventRepository,
+                                 RabbitTemplate rabbitTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${scheduling.outbox.batch-size:200}") int batchSize,
+                                 @Value("${scheduling.outbox.confirm-timeout:5s}") Duration confirmTimeout,
+                                 @Value("${scheduling.outbox.max-backoff:60s}") Duration maxBackoff) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.confirmTimeoutMillis = confirmTimeout.toMillis();
+        this.maxBackoff = maxBackoff;
+        this.brokerFailures = failureCounter(meterRegistry, "broker");
+        this.databaseFailures = failureCounter(meterRegistry, "database");
+    }
+
+    private static Counter failureCounter(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder(FAILURES)
+                .description("Outbox relay runs that failed and left their batch for a later run")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${scheduling.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        if (Instant.now().isBefore(retryAt)) {
+            return;
+        }
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+            consecutiveFailures = 0;
+        } catch (AmqpException e) {
+            brokerFailures.increment();
+            backOff(e);
+        } catch (DataAccessException | TransactionException e) {
+            databaseFailures.increment();
+            backOff(e);
+        }
+    }
+
+    /**
+     * Skip runs for 1s, 2s, 4s, ... up to max-backoff after consecutive failures.
+     */
+    private void backOff(RuntimeException e) {
+        consecutiveFailures++;
+        Duration delay = Duration.ofSeconds(1L << Math.min(consecutiveFailures - 1, 16));
+        if (delay.compareTo(maxBackoff) > 0) {
+            delay = maxBackoff;
+        }
+        retryAt = Instant.now().plus(delay);
+        log.warn("Could not publish appointment events, retrying in {}", delay, e);
+    }
+
+    private int publishBatch() {
+        // Another replica is relaying; two relays would publish an appointment's events out of order
+        if (!outboxEventRepository.tryLockRelay()) {
+            return 0;
+        }
+        List<OutboxEventEntity> events = outboxEventRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        rabbitTemplate.invoke(operations -> {
+            events.forEach(event -> operations.send(
+                    RabbitMQConfig.APPOINTMENT_EVENTS_EXCHANGE, event.getEventType(), toMessage(event)));
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+            return null;
+        });
+
+        outboxEventRepository.deleteAllInBatch(events);
+        log.debug("Published {} appointment events", events.size());
+        return events.size();
+    }
+
+    private Message toMessage(OutboxEventEntity event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setMessageId("appointment-event-" + event.getId())
+                .setType(event.getEventType())
+                .setTimestamp(Date.from(event.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.business;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.persistance.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+/**
+ * Moves appointments through the end of their lifecycle: BOOKED slots that have ended
+ * become COMPLETED, AVAILABLE ones that were never booked become EXPIRED, and finished
+ * rows older than the archive threshold move to appointments_archive. Every batch is its
+ * own short transaction that skips locked rows, so the job can run on several instances
+ * and never blocks bookings.
+ */
+@Component
+@Slf4j
+public class AppointmentLifecycleJob {
+
+    private final AppointmentRepository appointmentRepository;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration archiveAfter;
+
+    public AppointmentLifecycleJob(AppointmentRepository appointmentRepository,
+                                   @Value("${scheduling.lifecycle.batch-size:500}") int batchSize,
+                                   @Value("${scheduling.lifecycle.max-batches:20}") int maxBatches,
+                                   @Value("${scheduling.lifecycle.archive-after:180d}") Duration archiveAfter) {
+        this.appointmentRepository = appointmentRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatches = Math.max(1, maxBatches);
+        this.archiveAfter = archiveAfter;
+    }
+
+    @Scheduled(fixedDelayString = "${scheduling.lifecycle.interval-ms:60000}",
+            initialDelayString = "${scheduling.lifecycle.interval-ms:60000}")
+    public void run() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            int completed = inBatches(() -> appointmentRepository.completeEnded(now, batchSize));
+            int expired = inBatches(() -> appointmentRepository.expireEnded(now, batchSize));
+            int archived = inBatches(() ->
+                    appointmentRepository.archiveEnded(now.minus(archiveAfter), batchSize, now));
+            if (completed + expired + archived > 0) {
+                log.info("Completed {}, expired {} and archived {} appointments", completed, expired, archived);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Appointment lifecycle run failed, will retry on the next run", e);
+        }
+    }
+
+    /**
+     * Repeat a batch until it comes back short or the per-run cap is reached; the cap keeps
+     * a large backlog from holding a scheduler thread for long.
+     */
+    private int inBatches(IntSupplier batch) {
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int changed = batch.getAsInt();
+            total += changed;
+            if (changed < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.business;
+
+import org.example.business.dto.AppointmentChangesResponse;
+import org.example.business.dto.AppointmentPageResponse;
+import org.example.business.dto.AppointmentResponse;
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentChanges;
+import org.example.domain.AppointmentPage;
+import org.example.persistance.entity.AppointmentEntity;
+
+import java.util.List;
+
+/**
+ * Maps appointment rows that write paths already hold as entities. Read paths project
+ * straight into {@link Appointment} in the repository queries instead. Every response
+ * body is mapped here once, so the domain type never reaches Jackson.
+ */
+public final class AppointmentMapper {
+
+    private AppointmentMapper() {
+    }
+
+    public static Appointment toAppointment(AppointmentEntity entity) {
+        return new Appointment(
+                entity.getId(),
+                entity.getTherapistKeycloakId(),
+                entity.getPatientKeycloakId(),
+                entity.getStartTime(),
+                entity.getEndTime(),
+                entity.getStatus(),
+                entity.getNotes(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt(),
+                entity.getVersion());
+    }
+
+    public static AppointmentResponse toResponse(Appointment appointment) {
+        return AppointmentResponse.builder()
+                .id(appointment.getId())
+                .therapistKeycloakId(appointment.getTherapistKeycloakId())
+                .patientKeycloakId(appointment.getPatientKeycloakId())
+                .startTime(appointment.getStartTime())
+                .endTime(appointment.getEndTime())
+                .status(appointment.getStatus())
+                .notes(appointment.getNotes())
+                .createdAt(appointment.getCreatedAt())
+                .updatedAt(appointment.getUpdatedAt())
+                .role(appointment.getRole())
+                .build();
+    }
+
+    public static List<AppointmentResponse> toResponses(List<Appointment> appointments) {
+        return appointments.stream()
+                .map(AppointmentMapper::toResponse)
+                .toList();
+    }
+
+    public static AppointmentPageResponse toResponse(AppointmentPage page) {
+        return AppointmentPageResponse.builder()
+                .appointments(toResponses(page.getAppointments()))
+                .nextCursor(page.getNextCursor())
+                .build();
+    }
+
+    public static AppointmentChangesResponse toResponse(AppointmentChanges changes) {
+        return AppointmentChangesResponse.builder()
+                .appointments(toResponses(changes.getAppointments()))
+                .removedIds(changes.getRemovedIds())
+                .watermark(changes.getWatermark())
+                .fullSync(changes.isFullSync())
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.business;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.persistance.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the appointments table range-partitioned by month on start_time. On startup the
+ * plain table is converted once; afterwards partitions are created ahead of time so new
+ * slots never land in the default partition. Start-time range queries (available slots,
+ * keyset pages, overlap checks) then only touch the months they ask for.
+ */
+@Component
+@ConditionalOnProperty(name = "scheduling.partitioning.enabled", havingValue = "true")
+@Slf4j
+public class AppointmentPartitionMaintenance {
+
+    private final AppointmentRepository appointmentRepository;
+    private final int monthsAhead;
+
+    public AppointmentPartitionMaintenance(AppointmentRepository appointmentRepository,
+                                           @Value("${scheduling.partitioning.months-ahead:3}") int monthsAhead) {
+        this.appointmentRepository = appointmentRepository;
+        this.monthsAhead = Math.max(1, monthsAhead);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void partitionOnStartup() {
+        if (appointmentRepository.partitionByMonth(monthsAhead)) {
+            log.info("Converted appointments to monthly partitions");
+        }
+        createUpcomingPartitions();
+    }
+
+    @Scheduled(cron = "${scheduling.partitioning.cron:0 0 2 * * *}")
+    public void createUpcomingPartitions() {
+        int created = appointmentRepository.ensurePartitions(monthsAhead);
+        if (created > 0) {
+            log.info("Created {} appointment partitions", created);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.business;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.persistance.AppointmentTombstoneRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes tombstones older than the delta sync retention; clients syncing from further
+ * back get a full list instead.
+ */
+@Component
+@Slf4j
+public class AppointmentTombstonePurge {
+
+    private final AppointmentTombstoneRepository appointmentTombstoneRepository;
+    private final Duration retention;
+
+    public AppointmentTombstonePurge(AppointmentTombstoneRepository appointmentTombstoneRepository,
+                                     @Value("${scheduling.delta-sync.tombstone-retention:30d}") Duration retention) {
+        this.appointmentTombstoneRepository = appointmentTombstoneRepository;
+        this.retention = retention;
+    }
+
+    @Scheduled(cron = "${scheduling.delta-sync.purge-cron:0 30 3 * * *}")
+    public void purge() {
+        int deleted = appointmentTombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(retention));
+        log.info("Purged {} appointment tombstones", deleted);
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.business;
+
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * In-memory index of AVAILABLE slots per therapist, ordered by start time.
+ * A therapist's slots are loaded on first access and then kept in sync by the
+ * create, book, cancel and account deletion flows. Entries are reloaded after
+ * the configured TTL so that changes made by other replicas are picked up.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final ConcurrentMap<String, TherapistSlots> slotsByTherapist = new ConcurrentHashMap<>();
+
+    public AvailabilityIndex(@Value("${scheduling.availability-index.enabled:true}") boolean enabled,
+                             @Value("${scheduling.availability-index.ttl:30s}") Duration ttl) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the future AVAILABLE slots of a therapist, loading them with the given loader
+     * when the therapist is not indexed yet or the entry has expired.
+     */
+    public List<Appointment> getAvailable(String therapistKeycloakId,
+                                          Function<String, List<Appointment>> loader) {
+        TherapistSlots slots = slotsByTherapist.get(therapistKeycloakId);
+        if (slots != null && slots.isLoaded() && slots.isExpired(System.nanoTime(), ttlNanos)) {
+            slotsByTherapist.remove(therapistKeycloakId, slots);
+            slots = null;
+        }
+        if (slots == null || !slots.isLoaded()) {
+            slots = load(therapistKeycloakId, loader);
+        }
+
+        // Drop slots that have started since they were indexed
+        slots.entries.headMap(new SlotKey(LocalDateTime.now(), Long.MAX_VALUE)).clear();
+        return new ArrayList<>(slots.entries.values());
+    }
+
+    /**
+     * Add a slot to its therapist's entry if that therapist is currently indexed.
+     */
+    public void add(Appointment appointment) {
+        if (appointment.getStatus() != AppointmentStatus.AVAILABLE) {
+            return;
+        }
+        slotsByTherapist.computeIfPresent(appointment.getTherapistKeycloakId(), (id, slots) -> {
+            if (!slots.isLoaded()) {
+                return TherapistSlots.loading();
+            }
+            slots.entries.put(new SlotKey(appointment.getStartTime(), appointment.getId()), appointment);
+            return slots;
+        });
+    }
+
+    /**
+     * Add newly created slots once the surrounding transaction has committed, so no other
+     * request is offered a row it cannot see yet and a rolled-back create leaves nothing
+     * behind. Without a transaction they are added right away.
+     */
+    public void addAfterCommit(List<Appointment> appointments) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appointments.forEach(this::add);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                appointments.forEach(AvailabilityIndex.this::add);
+            }
+        });
+    }
+
+    /**
+     * Remove a slot that is no longer AVAILABLE (booked, cancelled or deleted).
+     */
+    public void remove(String therapistKeycloakId, LocalDateTime startTime, Long appointmentId) {
+        slotsByTherapist.computeIfPresent(therapistKeycloakId, (id, slots) -> {
+            if (!slots.isLoaded()) {
+                return TherapistSlots.loading();
+            }
+            slots.entries.remove(new SlotKey(startTime, appointmentId));
+            return slots;
+        });
+    }
+
+    /**
+     * Forget everything indexed for a therapist; the next read reloads from the database.
+     */
+    public void evict(String therapistKeycloakId) {
+        slotsByTherapist.remove(therapistKeycloakId);
+    }
+
+    /**
+     * Run the loader without holding any map lock, so a slow query never blocks other
+     * therapists sharing the bin. A placeholder marks the load; add, remove and evict
+     * replace or drop it, and the result is only installed if the placeholder is still
+     * in place. Otherwise the query may have missed that change, so the result is
+     * returned to this caller but not kept, and the next read loads again.
+     */
+    private TherapistSlots load(String therapistKeycloakId, Function<String, List<Appointment>> loader) {
+        TherapistSlots placeholder = slotsByTherapist.computeIfAbsent(therapistKeycloakId,
+                id -> TherapistSlots.loading());
+        if (placeholder.isLoaded()) {
+            // Another request finished loading in the meantime
+            return placeholder;
+        }
+        TherapistSlots loaded = TherapistSlots.of(loader.apply(therapistKeycloakId));
+        slotsByTherapist.replace(therapistKeycloakId, placeholder, loaded);
+        return loaded;
+    }
+
+    private record SlotKey(LocalDateTime startTime, Long id) implements Comparable<SlotKey> {
+        @Override
+        public int compareTo(SlotKey other) {
+            int byStart = startTime.compareTo(other.startTime);
+            return byStart != 0 ? byStart : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * A therapist's loaded slots, or a placeholder while they are being loaded. Compared by
+     * identity: every placeholder is a new instance, which is what load relies on.
+     */
+    private static final class TherapistSlots {
+        private final ConcurrentNavigableMap<SlotKey, Appointment> entries = new ConcurrentSkipListMap<>();
+        private final long loadedAtNanos = System.nanoTime();
+        private final boolean loaded;
+
+        private TherapistSlots(boolean loaded) {
+            this.loaded = loaded;
+        }
+
+        private static TherapistSlots loading() {
+            return new TherapistSlots(false);
+        }
+
+        private static TherapistSlots of(List<Appointment> appointments) {
+            TherapistSlots slots = new TherapistSlots(true);
+            for (Appointment appointment : appointments) {
+                slots.entries.put(new SlotKey(appointment.getStartTime(), appointment.getId()), appointment);
+            }
+            return slots;
+        }
+
+        private boolean isLoaded() {
+            return loaded;
+        }
+
+        private boolean isExpired(long nowNanos, long ttlNanos) {
+            return nowNanos - loadedAtNanos > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.business;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Serialized GET /therapist/{id}/available responses per therapist, with their ETag.
+ * Bounded by total body size and expired after a TTL. On a miss only one request per
+ * therapist builds the body; concurrent requests for the same therapist wait for it.
+ * Create, book, cancel and account deletion invalidate the therapist's entry.
+ * Every lookup is timed, tagged with whether the body was served from the cache or built.
+ */
+@Component
+public class AvailableSlotsResponseCache {
+
+    public record CachedResponse(byte[] body, String eTag) {
+    }
+
+    static final String TIMER = "scheduling.available-response";
+
+    private final Cache<String, CachedResponse> cache;
+    private final MeterRegistry meterRegistry;
+    private final Timer hits;
+    private final Timer misses;
+
+    public AvailableSlotsResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${scheduling.available-response-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${scheduling.available-response-cache.ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String therapistId, CachedResponse response) -> response.body().length)
+                .expireAfterWrite(ttl)
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.hits = timer("hit");
+        this.misses = timer("miss");
+    }
+
+    private Timer timer(String result) {
+        return Timer.builder(TIMER)
+                .description("Lookups of GET /therapist/{id}/available bodies")
+                .tag("cache", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the cached response for a therapist, building it with the given function on a miss.
+     */
+    public CachedResponse get(String therapistKeycloakId, Function<String, byte[]> bodyBuilder) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AtomicBoolean built = new AtomicBoolean();
+        try {
+            // Caffeine runs the builder at most once per key at a time (single-flight);
+            // requests that waited for another one's build count as hits
+            return cache.get(therapistKeycloakId, id -> {
+                built.set(true);
+                byte[] body = bodyBuilder.apply(id);
+                return new CachedResponse(body, DigestUtils.md5DigestAsHex(body));
+            });
+        } finally {
+            sample.stop(built.get() ? misses : hits);
+        }
+    }
+
+    /**
+     * Drop a therapist's entry. Inside a transaction the entry is dropped again once the
+     * transaction has finished, so a response built from not-yet-committed state is not kept.
+     */
+    public void invalidate(String therapistKeycloakId) {
+        cache.invalidate(therapistKeycloakId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(therapistKeycloakId);
+                }
+            });
+        }
+    }
+}
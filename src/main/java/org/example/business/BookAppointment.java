@@ -4,4 +4,6 @@ import org.example.domain.Appointment;
 
 public interface BookAppointment {
     Appointment book(Long appointmentId, String patientKeycloakId, String notes);
+
+    Appointment book(Long appointmentId, String patientKeycloakId, String notes, Long expectedVersion);
 }
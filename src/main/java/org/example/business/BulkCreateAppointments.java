@@ -0,0 +1,13 @@
+package org.example.business;
+
+import org.example.business.dto.CreateAppointmentRequest;
+import org.example.business.dto.RecurrenceRule;
+import org.example.domain.Appointment;
+
+import java.util.List;
+
+public interface BulkCreateAppointments {
+    List<Appointment> createAll(String therapistKeycloakId, List<CreateAppointmentRequest> slots);
+
+    List<Appointment> createRecurring(String therapistKeycloakId, RecurrenceRule rule, String notes);
+}
@@ -2,4 +2,6 @@ package org.example.business;
 
 public interface CancelAppointment {
     void cancel(Long appointmentId, String userKeycloakId);
+
+    void cancel(Long appointmentId, String userKeycloakId, Long expectedVersion);
 }
@@ -0,0 +1,72 @@
+package org.example.business;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.business.exception.AppointmentConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry for transient write conflicts (optimistic lock failures, deadlocks,
+ * lock timeouts, serialization failures). Each attempt runs in its own transaction, so
+ * everything written by the action (e.g. outbox events) commits or rolls back together.
+ * When all attempts fail the caller gets an {@link AppointmentConflictException}.
+ */
+@Component
+@Slf4j
+public class ConflictRetry {
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final TransactionTemplate transactionTemplate;
+
+    public ConflictRetry(@Value("${scheduling.conflict-retry.max-attempts:3}") int maxAttempts,
+                         @Value("${scheduling.conflict-retry.backoff:25ms}") Duration backoff,
+                         PlatformTransactionManager transactionManager) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoff.toMillis();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Giving up after {} attempts on concurrent modification", attempt, e);
+                    throw new AppointmentConflictException("Appointment is being modified concurrently, please retry");
+                }
+                log.debug("Transient conflict on attempt {}, retrying", attempt);
+                pause(attempt);
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void pause(int attempt) {
+        if (backoffMillis <= 0) {
+            return;
+        }
+        // Exponential backoff with jitter so competing replicas do not retry in lockstep
+        long ceiling = backoffMillis << (attempt - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AppointmentConflictException("Interrupted while retrying a conflicting write");
+        }
+    }
+}
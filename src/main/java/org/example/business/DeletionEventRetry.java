@@ -0,0 +1,97 @@
+package org.example.business;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.config.RabbitMQConfig;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Routes failed account deletion messages through the delayed-retry queues and, once
+ * every delay has been used, into the parking lot. Messages are published unchanged
+ * through the default exchange so other services bound to the deletion exchange never
+ * see a retry. Each hand-off waits for the broker's publisher confirm before returning,
+ * because the listener acknowledges the original as soon as it does.
+ */
+@Component
+@Slf4j
+public class DeletionEventRetry {
+
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final long confirmTimeoutMillis;
+
+    public DeletionEventRetry(RabbitTemplate rabbitTemplate,
+                              @Value("${scheduling.account-deletion.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmTimeoutMillis = confirmTimeout.toMillis();
+    }
+
+    /**
+     * Schedule another attempt for a message whose processing failed, or park it when
+     * it has already been retried after every configured delay.
+     */
+    public void retry(Message message, Exception cause) {
+        List<Duration> delays = RabbitMQConfig.SCHEDULING_DELETION_RETRY_DELAYS;
+        int retries = retryCount(message);
+        if (retries >= delays.size()) {
+            park(message, "Failed after " + retries + " retries: " + cause.getMessage());
+            return;
+        }
+
+        Duration delay = delays.get(retries);
+        message.getMessageProperties().setHeader(RabbitMQConfig.RETRY_COUNT_HEADER, retries + 1);
+        sendConfirmed(RabbitMQConfig.schedulingDeletionRetryQueue(delay), message);
+        log.warn("Account deletion message {} failed, retry {} in {}",
+                message.getMessageProperties().getMessageId(), retries + 1, delay);
+    }
+
+    /**
+     * Move a message to the parking lot, where it stays until replayed.
+     */
+    public void park(Message message, String reason) {
+        MessageProperties properties = message.getMessageProperties();
+        properties.setHeader(RabbitMQConfig.PARKED_REASON_HEADER, truncate(reason));
+        properties.setHeader(RabbitMQConfig.PARKED_AT_HEADER, LocalDateTime.now().toString());
+        sendConfirmed(RabbitMQConfig.SCHEDULING_DELETION_PARKING_LOT_QUEUE, message);
+        log.error("Parked account deletion message {}: {}", properties.getMessageId(), reason);
+    }
+
+    /**
+     * Publish and wait for the broker's confirm. When the broker does not take the copy, the
+     * original is requeued instead of acknowledged: a duplicate is a no-op for the consumer,
+     * a lost deletion event is not.
+     */
+    private void sendConfirmed(String queue, Message message) {
+        try {
+            rabbitTemplate.invoke(operations -> {
+                operations.send("", queue, message);
+                operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+                return null;
+            });
+        } catch (AmqpException e) {
+            throw new ImmediateRequeueAmqpException("Could not hand account deletion message over to " + queue, e);
+        }
+    }
+
+    private int retryCount(Message message) {
+        Object header = message.getMessageProperties().getHeader(RabbitMQConfig.RETRY_COUNT_HEADER);
+        return header instanceof Number number ? number.intValue() : 0;
+    }
+
+    private String truncate(String reason) {
+        if (reason == null) {
+            return "unknown";
+        }
+        return reason.length() <= MAX_REASON_LENGTH ? reason : reason.substring(0, MAX_REASON_LENGTH);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.business;
+
+import org.example.domain.Appointment;
+
+import java.util.function.Consumer;
+
+public interface ExportUserAppointments {
+    void export(String userKeycloakId, Consumer<Appointment> sink);
+}
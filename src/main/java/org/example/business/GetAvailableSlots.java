@@ -1,9 +1,23 @@
 package org.example.business;
 
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentPage;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface GetAvailableSlots {
     List<Appointment> getAvailable(String therapistKeycloakId);
+
+    AppointmentPage getAvailable(String therapistKeycloakId, LocalDateTime from, LocalDateTime to,
+                                 String cursor, int limit);
+
+    Map<String, List<Appointment>> search(Collection<String> therapistKeycloakIds, LocalDateTime from,
+                                          LocalDateTime to, Duration minDuration, int limitPerTherapist);
+
+    List<Appointment> findEarliest(LocalDateTime after, Duration minDuration,
+                                   Collection<String> therapistKeycloakIds, int limit);
 }
@@ -0,0 +1,10 @@
+package org.example.business;
+
+import org.example.domain.FreeBusy;
+
+import java.time.LocalDateTime;
+
+public interface GetFreeBusy {
+    FreeBusy getFreeBusy(String therapistKeycloakId, LocalDateTime from, LocalDateTime to,
+                         int granularityMinutes, boolean bitmap);
+}
@@ -0,0 +1,11 @@
+package org.example.business;
+
+import org.example.domain.AppointmentChanges;
+
+import java.time.LocalDateTime;
+
+public interface GetUserAppointmentChanges {
+    LocalDateTime getLastModified(String userKeycloakId);
+
+    AppointmentChanges getChanges(String userKeycloakId, LocalDateTime since);
+}
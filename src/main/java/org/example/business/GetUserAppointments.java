@@ -1,9 +1,14 @@
 package org.example.business;
 
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface GetUserAppointments {
     List<Appointment> getUserAppointments(String userKeycloakId);
+
+    AppointmentPage getUserAppointments(String userKeycloakId, LocalDateTime from, LocalDateTime to,
+                                        String cursor, int limit);
 }
@@ -0,0 +1,35 @@
+package org.example.business;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.persistance.ProcessedDeletionEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes processed account deletion event ids older than the retention. Redeliveries
+ * arrive within minutes; an event replayed from the parking lot after that is applied
+ * again, which deletes nothing because its appointments are already gone.
+ */
+@Component
+@Slf4j
+public class ProcessedDeletionEventPurge {
+
+    private final ProcessedDeletionEventRepository processedDeletionEventRepository;
+    private final Duration retention;
+
+    public ProcessedDeletionEventPurge(ProcessedDeletionEventRepository processedDeletionEventRepository,
+                                       @Value("${scheduling.account-deletion.processed-retention:30d}") Duration retention) {
+        this.processedDeletionEventRepository = processedDeletionEventRepository;
+        this.retention = retention;
+    }
+
+    @Scheduled(cron = "${scheduling.account-deletion.purge-cron:0 45 3 * * *}")
+    public void purge() {
+        int deleted = processedDeletionEventRepository.deleteOlderThan(LocalDateTime.now().minus(retention));
+        log.info("Purged {} processed account deletion events", deleted);
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.business;
+
+public interface ReplayParkedDeletionEvents {
+    long countParked();
+
+    int replay(int max);
+}
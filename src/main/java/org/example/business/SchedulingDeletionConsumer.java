@@ -1,55 +1,221 @@
 package org.example.business;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.example.business.dto.AccountDeletionEvent;
 import org.example.config.RabbitMQConfig;
+import org.example.persistance.AppointmentArchiveRepository;
 import org.example.persistance.AppointmentRepository;
+import org.example.persistance.ProcessedDeletionEventRepository;
+import org.example.persistance.entity.ProcessedDeletionEventEntity;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Consumer for account deletion events in Scheduling Service
- * Deletes all appointments related to the deleted user
+ * Deletes all appointments related to the deleted users
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SchedulingDeletionConsumer {
 
+    static final String LAG_TIMER = "scheduling.account-deletion.lag";
+    static final String BATCH_TIMER = "scheduling.account-deletion.batch";
+
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
+    private final ProcessedDeletionEventRepository processedDeletionEventRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailableSlotsResponseCache availableSlotsResponseCache;
+    private final DeletionEventRetry deletionEventRetry;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Timer lagTimer;
+    private final int chunkSize;
+
+    public SchedulingDeletionConsumer(AppointmentRepository appointmentRepository,
+                                      AppointmentArchiveRepository appointmentArchiveRepository,
+                                      ProcessedDeletionEventRepository processedDeletionEventRepository,
+                                      AvailabilityIndex availabilityIndex,
+                                      AvailableSlotsResponseCache availableSlotsResponseCache,
+                                      DeletionEventRetry deletionEventRetry,
+                                      ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${scheduling.account-deletion.chunk-size:1000}") int chunkSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentArchiveRepository = appointmentArchiveRepository;
+        this.processedDeletionEventRepository = processedDeletionEventRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.availableSlotsResponseCache = availableSlotsResponseCache;
+        this.deletionEventRetry = deletionEventRetry;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.lagTimer = Timer.builder(LAG_TIMER)
+                .description("Time from publishing an account deletion event until it is consumed")
+                .register(meterRegistry);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
 
     /**
-     * Listen for account deletion events and delete related appointments
+     * Listen for batches of account deletion events and delete related appointments
      *
-     * @param event The account deletion event
+     * @param messages The raw account deletion messages of one batch
+     */
+    @RabbitListener(queues = RabbitMQConfig.SCHEDULING_DELETION_QUEUE,
+            containerFactory = RabbitMQConfig.DELETION_BATCH_LISTENER_FACTORY)
+    public void handleAccountDeletions(List<Message> messages) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = process(messages);
+        sample.stop(Timer.builder(BATCH_TIMER)
+                .description("Processing time of one batch of account deletion events")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * @return "skipped" when nothing was left to apply, "success" or "retried"
      */
-    @RabbitListener(queues = RabbitMQConfig.SCHEDULING_DELETION_QUEUE)
-    @Transactional
-    public void handleAccountDeletion(AccountDeletionEvent event) {
+    private String process(List<Message> messages) {
+        // Event id -> event; duplicates inside the batch collapse here
+        Map<String, AccountDeletionEvent> events = new LinkedHashMap<>();
+        // Events without a stable identity cannot be deduplicated; deleting again is harmless
+        List<AccountDeletionEvent> unidentified = new ArrayList<>();
+        List<Message> readable = new ArrayList<>();
+        for (Message message : messages) {
+            AccountDeletionEvent event = read(message);
+            if (event != null) {
+                recordLag(message, event);
+                String eventId = eventId(message, event);
+                if (eventId != null) {
+                    events.putIfAbsent(eventId, event);
+                } else {
+                    unidentified.add(event);
+                }
+                readable.add(message);
+            }
+        }
+        if (events.isEmpty() && unidentified.isEmpty()) {
+            return "skipped";
+        }
+
+        // Redelivered events were already applied
+        Set<String> processed = events.isEmpty() ? Set.of()
+                : processedDeletionEventRepository.findProcessedIds(events.keySet());
+        events.keySet().removeAll(processed);
+        if (events.isEmpty() && unidentified.isEmpty()) {
+            log.info("Skipped {} account deletion events that were already processed", processed.size());
+            return "skipped";
+        }
+
+        Set<String> userKeycloakIds = Stream.concat(events.values().stream(), unidentified.stream())
+                .map(AccountDeletionEvent::getUserKeycloakId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
         try {
-            String userKeycloakId = event.getUserKeycloakId();
-            log.info("Received account deletion event for user: {} - Reason: {}",
-                    userKeycloakId, event.getReason());
+            log.info("Received {} account deletion events for {} users",
+                    events.size() + unidentified.size(), userKeycloakIds.size());
 
-            // Delete appointments where user is the patient
-            int deletedAsPatient = appointmentRepository.deleteByPatientKeycloakId(userKeycloakId);
-            log.info("Deleted {} appointments where user was patient", deletedAsPatient);
+            // Delete appointments, live and archived, where any of the users is the patient
+            // or the therapist
+            int deleted = deleteAppointments(userKeycloakIds);
+            log.info("Deleted {} appointments for {} deleted users", deleted, userKeycloakIds.size());
 
-            // Delete appointments where user is the therapist
-            int deletedAsTherapist = appointmentRepository.deleteByTherapistKeycloakId(userKeycloakId);
-            log.info("Deleted {} appointments where user was therapist", deletedAsTherapist);
+            if (!events.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+                processedDeletionEventRepository.saveAll(events.entrySet().stream()
+                        .map(entry -> ProcessedDeletionEventEntity.builder()
+                                .id(entry.getKey())
+                                .userKeycloakId(entry.getValue().getUserKeycloakId())
+                                .processedAt(now)
+                                .build())
+                        .collect(Collectors.toList()));
+            }
+            userKeycloakIds.forEach(availabilityIndex::evict);
+            userKeycloakIds.forEach(availableSlotsResponseCache::invalidate);
 
-            log.info("Successfully processed account deletion for user: {} in Scheduling Service",
-                    userKeycloakId);
+            log.info("Successfully processed account deletion for users: {} in Scheduling Service",
+                    userKeycloakIds);
+            return "success";
 
         } catch (Exception e) {
-            log.error("Failed to process account deletion event for user: {}",
-                    event.getUserKeycloakId(), e);
-            // In production, you might want to implement a dead letter queue
-            // or retry mechanism here
-            throw e; // This will trigger RabbitMQ redelivery
+            log.error("Failed to process account deletion events for users: {}", userKeycloakIds, e);
+            // Each message goes through the delayed-retry queues on its own, so a short
+            // database outage does not hammer it with immediate redeliveries
+            readable.forEach(message -> deletionEventRetry.retry(message, e));
+            return "retried";
+        }
+    }
+
+    /**
+     * Age of the event when it reaches us: the AMQP timestamp when the publisher sets one,
+     * otherwise the deletion time carried in the event.
+     */
+    private void recordLag(Message message, AccountDeletionEvent event) {
+        Date published = message.getMessageProperties().getTimestamp();
+        Instant sentAt = published != null ? published.toInstant()
+                : event.getDeletionTimestamp() != null
+                ? event.getDeletionTimestamp().atZone(ZoneId.systemDefault()).toInstant()
+                : null;
+        if (sentAt != null) {
+            lagTimer.record(Duration.between(sentAt, Instant.now()));
+        }
+    }
+
+    private int deleteAppointments(Collection<String> userKeycloakIds) {
+        // Each chunk commits on its own so locks are held briefly
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = appointmentRepository.deleteChunkForUsers(userKeycloakIds, chunkSize, now);
+            total += deleted;
+        } while (deleted == chunkSize);
+        do {
+            deleted = appointmentArchiveRepository.deleteChunkForUsers(userKeycloakIds, chunkSize, now);
+            total += deleted;
+        } while (deleted == chunkSize);
+        return total;
+    }
+
+    private AccountDeletionEvent read(Message message) {
+        try {
+            AccountDeletionEvent event = objectMapper.readValue(message.getBody(), AccountDeletionEvent.class);
+            if (event.getUserKeycloakId() == null || event.getUserKeycloakId().isBlank()) {
+                deletionEventRetry.park(message, "Account deletion event without user id");
+                return null;
+            }
+            return event;
+        } catch (IOException e) {
+            // Retrying cannot fix a message that does not parse
+            deletionEventRetry.park(message, "Unreadable account deletion event: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The AMQP message id when the publisher sets one, otherwise the user and deletion time;
+     * null when the event has neither. The user id alone would mark every later deletion
+     * event for that user as a duplicate for the whole retention period.
+     */
+    private String eventId(Message message, AccountDeletionEvent event) {
+        String messageId = message.getMessageProperties().getMessageId();
+        if (messageId != null && !messageId.isBlank()) {
+            return messageId;
         }
+        return event.getDeletionTimestamp() != null
+                ? event.getUserKeycloakId() + "@" + event.getDeletionTimestamp()
+                : null;
     }
 }
@@ -0,0 +1,96 @@
+package org.example.business;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.business.exception.AppointmentConflictException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Times every call into the scheduling use cases, tagged with the use case, the method
+ * and the outcome (success, conflict or error), and counts rejected bookings.
+ * Repository calls are timed by Spring Data's own spring.data.repository.invocations.
+ * GET /therapist/{id}/available is mostly answered from AvailableSlotsResponseCache
+ * without reaching GetAvailableSlots; the cache times those requests itself.
+ */
+@Aspect
+@Component
+public class UseCaseMetrics {
+
+    static final String TIMER = "scheduling.operation";
+    static final String BOOKING_CONFLICTS = "scheduling.booking.conflicts";
+
+    private static final List<Class<?>> USE_CASES = List.of(
+            CreateAppointment.class,
+            BulkCreateAppointments.class,
+            BookAppointment.class,
+            CancelAppointment.class,
+            GetAvailableSlots.class,
+            GetUserAppointments.class,
+            GetUserAppointmentChanges.class,
+            ExportUserAppointments.class,
+            GetFreeBusy.class,
+            ReplayParkedDeletionEvents.class);
+
+    private final MeterRegistry meterRegistry;
+    private final Counter bookingConflicts;
+
+    public UseCaseMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.bookingConflicts = Counter.builder(BOOKING_CONFLICTS)
+                .description("Bookings rejected because the slot was taken or changed concurrently")
+                .register(meterRegistry);
+    }
+
+    @Around("execution(* org.example.business.CreateAppointment.*(..))"
+            + " || execution(* org.example.business.BulkCreateAppointments.*(..))"
+            + " || execution(* org.example.business.BookAppointment.*(..))"
+            + " || execution(* org.example.business.CancelAppointment.*(..))"
+            + " || execution(* org.example.business.GetAvailableSlots.*(..))"
+            + " || execution(* org.example.business.GetUserAppointments.*(..))"
+            + " || execution(* org.example.business.GetUserAppointmentChanges.*(..))"
+            + " || execution(* org.example.business.ExportUserAppointments.*(..))"
+            + " || execution(* org.example.business.GetFreeBusy.*(..))"
+            + " || execution(* org.example.business.ReplayParkedDeletionEvents.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> useCase = useCase(joinPoint.getTarget());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (AppointmentConflictException | ConcurrencyFailureException e) {
+            // Both end up as 409 Conflict
+            outcome = "conflict";
+            if (useCase == BookAppointment.class) {
+                bookingConflicts.increment();
+            }
+            throw e;
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER)
+                    .description("Scheduling use case calls")
+                    .tag("use_case", useCase.getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * The use case interface rather than the implementation class, so tags stay stable.
+     */
+    private Class<?> useCase(Object target) {
+        return USE_CASES.stream()
+                .filter(type -> type.isInstance(target))
+                .findFirst()
+                .orElse(target.getClass());
+    }
+}
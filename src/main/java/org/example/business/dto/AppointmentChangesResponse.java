@@ -0,0 +1,20 @@
+package org.example.business.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentChangesResponse {
+    private List<AppointmentResponse> appointments;
+    private List<Long> removedIds;
+    private LocalDateTime watermark;
+    private boolean fullSync;
+}
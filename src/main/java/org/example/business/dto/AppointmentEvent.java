@@ -0,0 +1,28 @@
+package org.example.business.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.domain.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published on appointment.events.exchange; the event type is also the routing key.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentEvent {
+    private String eventType;
+    private Long appointmentId;
+    private String therapistKeycloakId;
+    private String patientKeycloakId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private AppointmentStatus status;
+    private Long version;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,17 @@
+package org.example.business.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentPageResponse {
+    private List<AppointmentResponse> appointments;
+    private String nextCursor;
+}
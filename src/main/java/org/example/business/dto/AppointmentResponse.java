@@ -1,12 +1,18 @@
 package org.example.business.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.domain.AppointmentStatus;
 
 import java.time.LocalDateTime;
 
+/**
+ * The public JSON shape of an appointment. Kept apart from the domain type so internal
+ * fields (such as the optimistic-lock version, sent as the ETag instead) stay out of it.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,8 +23,10 @@ public class AppointmentResponse {
     private String patientKeycloakId;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
-    private String status;
+    private AppointmentStatus status;
     private String notes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String role; // PATIENT or THERAPIST, only in a user's own list
 }
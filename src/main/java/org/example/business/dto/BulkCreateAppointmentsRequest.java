@@ -0,0 +1,18 @@
+package org.example.business.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCreateAppointmentsRequest {
+    private List<CreateAppointmentRequest> slots; // Explicit slots, used when recurrence is null
+    private RecurrenceRule recurrence;
+    private String notes;                          // Notes for every slot generated by the recurrence
+}
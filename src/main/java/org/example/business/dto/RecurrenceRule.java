@@ -0,0 +1,29 @@
+package org.example.business.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * Weekly availability pattern, e.g. MONDAY..FRIDAY 09:00-17:00,
+ * 50-minute slots with 10-minute gaps, for 12 weeks from startDate.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurrenceRule {
+    private LocalDate startDate;
+    private int weeks;
+    private Set<DayOfWeek> daysOfWeek;
+    private LocalTime dayStart;
+    private LocalTime dayEnd;
+    private int slotMinutes;
+    private int gapMinutes;
+}
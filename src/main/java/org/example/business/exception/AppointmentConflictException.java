@@ -0,0 +1,13 @@
+package org.example.business.exception;
+
+/**
+ * Thrown when a write loses against the current state of an appointment,
+ * e.g. an overlapping slot or a slot that was booked in the meantime.
+ * Mapped to HTTP 409 by the controller.
+ */
+public class AppointmentConflictException extends RuntimeException {
+
+    public AppointmentConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.business.impl;
+
+import org.example.domain.Appointment;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Merges a user's live appointments with their archived ones, both ordered by (startTime, id).
+ * Callers read the live rows first: a row archived between the two reads then shows up in
+ * both and is emitted once, rather than in neither.
+ */
+final class AppointmentHistory {
+
+    static final Comparator<Appointment> ORDER =
+            Comparator.comparing(Appointment::getStartTime).thenComparing(Appointment::getId);
+
+    private AppointmentHistory() {
+    }
+
+    static List<Appointment> merge(List<Appointment> live, List<Appointment> archived) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<Appointment> merged = new ArrayList<>(live.size() + archived.size());
+        merge(live.iterator(), archived.iterator(), merged::add);
+        return merged;
+    }
+
+    static void merge(Iterator<Appointment> live, Iterator<Appointment> archived, Consumer<Appointment> sink) {
+        Appointment nextLive = next(live);
+        Appointment nextArchived = next(archived);
+        while (nextLive != null || nextArchived != null) {
+            int order = nextLive == null ? 1 : nextArchived == null ? -1 : ORDER.compare(nextLive, nextArchived);
+            if (order <= 0) {
+                sink.accept(nextLive);
+                if (order == 0) {
+                    nextArchived = next(archived);
+                }
+                nextLive = next(live);
+            } else {
+                sink.accept(nextArchived);
+                nextArchived = next(archived);
+            }
+        }
+    }
+
+    private static Appointment next(Iterator<Appointment> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+}
@@ -1,51 +1,68 @@
 package org.example.business.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.example.business.AppointmentEventOutbox;
+import org.example.business.AppointmentMapper;
+import org.example.business.AvailabilityIndex;
+import org.example.business.AvailableSlotsResponseCache;
 import org.example.business.BookAppointment;
+import org.example.business.ConflictRetry;
+import org.example.business.exception.AppointmentConflictException;
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
 import org.example.persistance.AppointmentRepository;
 import org.example.persistance.entity.AppointmentEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 public class BookAppointmentImpl implements BookAppointment {
 
     private final AppointmentRepository appointmentRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailableSlotsResponseCache availableSlotsResponseCache;
+    private final ConflictRetry conflictRetry;
+    private final AppointmentEventOutbox appointmentEventOutbox;
 
     @Override
     public Appointment book(Long appointmentId, String patientKeycloakId, String notes) {
-        AppointmentEntity entity = appointmentRepository.findById(appointmentId)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
-
-        // Check if slot is available
-        if (!"AVAILABLE".equals(entity.getStatus())) {
-            throw new RuntimeException("Appointment slot is not available");
-        }
+        return book(appointmentId, patientKeycloakId, notes, null);
+    }
 
-        // Book the appointment
-        entity.setPatientKeycloakId(patientKeycloakId);
-        entity.setStatus("BOOKED");
-        if (notes != null && !notes.isEmpty()) {
-            entity.setNotes(entity.getNotes() != null ?
-                    entity.getNotes() + " | Patient notes: " + notes : "Patient notes: " + notes);
-        }
+    @Override
+    public Appointment book(Long appointmentId, String patientKeycloakId, String notes, Long expectedVersion) {
+        // Book with a single conditional UPDATE; patient notes are appended by the statement.
+        // The booked event is recorded in the same transaction.
+        // Lock timeouts and deadlocks are retried a bounded number of times.
+        Appointment booked = conflictRetry.execute(() -> {
+            AppointmentEntity saved = appointmentRepository
+                    .bookIfAvailable(appointmentId, patientKeycloakId, notes, expectedVersion, LocalDateTime.now())
+                    .orElseThrow(() -> notBooked(appointmentId, expectedVersion));
+            Appointment appointment = AppointmentMapper.toAppointment(saved);
+            appointmentEventOutbox.append(AppointmentEventOutbox.APPOINTMENT_BOOKED, appointment);
+            return appointment;
+        });
 
-        AppointmentEntity saved = appointmentRepository.save(entity);
-        return toAppointment(saved);
+        availabilityIndex.remove(booked.getTherapistKeycloakId(), booked.getStartTime(), booked.getId());
+        availableSlotsResponseCache.invalidate(booked.getTherapistKeycloakId());
+        return booked;
     }
 
-    private Appointment toAppointment(AppointmentEntity entity) {
-        return Appointment.builder()
-                .id(entity.getId())
-                .therapistKeycloakId(entity.getTherapistKeycloakId())
-                .patientKeycloakId(entity.getPatientKeycloakId())
-                .startTime(entity.getStartTime())
-                .endTime(entity.getEndTime())
-                .status(entity.getStatus())
-                .notes(entity.getNotes())
-                .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt())
-                .build();
+    private RuntimeException notBooked(Long appointmentId, Long expectedVersion) {
+        // Only reached when the UPDATE matched nothing: find out why
+        AppointmentEntity entity = appointmentRepository.findById(appointmentId).orElse(null);
+        if (entity == null) {
+            return new RuntimeException("Appointment not found");
+        }
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            return new AppointmentConflictException("Appointment was modified by another request");
+        }
+        if (!entity.getStatus().canTransitionTo(AppointmentStatus.BOOKED)) {
+            return new AppointmentConflictException("Appointment slot is not available");
+        }
+        // Bookable now, so it changed between the UPDATE and this read
+        return new AppointmentConflictException("Appointment was modified by another request");
     }
 }
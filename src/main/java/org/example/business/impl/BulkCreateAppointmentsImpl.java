@@ -0,0 +1,199 @@
+package org.example.business.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.example.business.AppointmentEventOutbox;
+import org.example.business.AppointmentMapper;
+import org.example.business.AvailabilityIndex;
+import org.example.business.AvailableSlotsResponseCache;
+import org.example.business.BulkCreateAppointments;
+import org.example.business.dto.CreateAppointmentRequest;
+import org.example.business.dto.RecurrenceRule;
+import org.example.business.exception.AppointmentConflictException;
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
+import org.example.persistance.AppointmentRepository;
+import org.example.persistance.entity.AppointmentEntity;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BulkCreateAppointmentsImpl implements BulkCreateAppointments {
+
+    private static final int MAX_WEEKS = 52;
+    // A full year of a dense working week, e.g. Mon–Fri 08:00–20:00 in hourly slots
+    private static final int MAX_SLOTS_PER_WEEK = 60;
+    private static final int MAX_SLOTS = MAX_WEEKS * MAX_SLOTS_PER_WEEK;
+
+    private final AppointmentRepository appointmentRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailableSlotsResponseCache availableSlotsResponseCache;
+    private final AppointmentEventOutbox appointmentEventOutbox;
+
+    @Override
+    @Transactional
+    public List<Appointment> createAll(String therapistKeycloakId, List<CreateAppointmentRequest> slots) {
+        if (slots == null || slots.isEmpty()) {
+            throw new RuntimeException("No slots to create");
+        }
+        if (slots.size() > MAX_SLOTS) {
+            throw new RuntimeException("Cannot create more than " + MAX_SLOTS + " slots at once");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (CreateAppointmentRequest slot : slots) {
+            if (slot.getStartTime() == null || slot.getEndTime() == null) {
+                throw new RuntimeException("Start and end time are required");
+            }
+            if (slot.getStartTime().isBefore(now)) {
+                throw new RuntimeException("Cannot create appointment in the past");
+            }
+            if (!slot.getEndTime().isAfter(slot.getStartTime())) {
+                throw new RuntimeException("End time must be after start time");
+            }
+        }
+
+        List<CreateAppointmentRequest> sorted = new ArrayList<>(slots);
+        sorted.sort(Comparator.comparing(CreateAppointmentRequest::getStartTime));
+
+        // Slots of the batch must not overlap each other
+        LocalDateTime rangeEnd = sorted.get(0).getEndTime();
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getStartTime().isBefore(sorted.get(i - 1).getEndTime())) {
+                throw new AppointmentConflictException("Requested slots overlap each other");
+            }
+            rangeEnd = sorted.get(i).getEndTime();
+        }
+
+        // One range query for the whole batch, then a sweep over both sorted lists
+        List<AppointmentEntity> existing = appointmentRepository.findOverlapping(
+                therapistKeycloakId, sorted.get(0).getStartTime(), rangeEnd);
+        if (conflicts(sorted, existing)) {
+            throw new AppointmentConflictException("Time slot conflicts with existing appointment");
+        }
+
+        List<AppointmentEntity> entities = sorted.stream()
+                .map(slot -> AppointmentEntity.builder()
+                        .therapistKeycloakId(therapistKeycloakId)
+                        .startTime(slot.getStartTime())
+                        .endTime(slot.getEndTime())
+                        .status(AppointmentStatus.AVAILABLE)
+                        .notes(slot.getNotes())
+                        .build())
+                .collect(Collectors.toList());
+
+        // The exclusion constraint still guards against slots created concurrently
+        List<AppointmentEntity> saved;
+        try {
+            saved = appointmentRepository.saveAllAndFlush(entities);
+        } catch (DataIntegrityViolationException e) {
+            if (AppointmentRepository.isOverlapViolation(e)) {
+                throw new AppointmentConflictException("Time slot conflicts with existing appointment");
+            }
+            throw e;
+        }
+
+        List<Appointment> created = saved.stream()
+                .map(AppointmentMapper::toAppointment)
+                .collect(Collectors.toList());
+        appointmentEventOutbox.appendAll(AppointmentEventOutbox.APPOINTMENT_CREATED, created);
+        availabilityIndex.addAfterCommit(created);
+        availableSlotsResponseCache.invalidate(therapistKeycloakId);
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public List<Appointment> createRecurring(String therapistKeycloakId, RecurrenceRule rule, String notes) {
+        return createAll(therapistKeycloakId, expand(rule, notes));
+    }
+
+    /**
+     * Expand a weekly rule into concrete slots, skipping occurrences that already started.
+     */
+    List<CreateAppointmentRequest> expand(RecurrenceRule rule, String notes) {
+        if (rule.getStartDate() == null || rule.getDayStart() == null || rule.getDayEnd() == null
+                || rule.getDaysOfWeek() == null || rule.getDaysOfWeek().isEmpty()) {
+            throw new RuntimeException("Recurrence rule is incomplete");
+        }
+        if (rule.getWeeks() < 1 || rule.getWeeks() > MAX_WEEKS) {
+            throw new RuntimeException("Recurrence must cover between 1 and " + MAX_WEEKS + " weeks");
+        }
+        if (rule.getSlotMinutes() <= 0 || rule.getGapMinutes() < 0) {
+            throw new RuntimeException("Slot length must be positive and gap must not be negative");
+        }
+        if (!rule.getDayEnd().isAfter(rule.getDayStart())) {
+            throw new RuntimeException("End time must be after start time");
+        }
+        long count = countSlots(rule);
+        if (count > MAX_SLOTS) {
+            throw new RuntimeException("Recurrence expands to " + count + " slots, at most "
+                    + MAX_SLOTS + " can be created at once");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<CreateAppointmentRequest> slots = new ArrayList<>();
+        LocalDate endDate = rule.getStartDate().plusWeeks(rule.getWeeks());
+        for (LocalDate date = rule.getStartDate(); date.isBefore(endDate); date = date.plusDays(1)) {
+            if (!rule.getDaysOfWeek().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime dayEnd = date.atTime(rule.getDayEnd());
+            LocalDateTime start = date.atTime(rule.getDayStart());
+            while (!start.plusMinutes(rule.getSlotMinutes()).isAfter(dayEnd)) {
+                LocalDateTime end = start.plusMinutes(rule.getSlotMinutes());
+                if (!start.isBefore(now)) {
+                    slots.add(CreateAppointmentRequest.builder()
+                            .startTime(start)
+                            .endTime(end)
+                            .notes(notes)
+                            .build());
+                }
+                start = end.plusMinutes(rule.getGapMinutes());
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Upper bound of the slots a rule expands to, without building them. Days before
+     * today are left out, as the expansion skips them too.
+     */
+    private long countSlots(RecurrenceRule rule) {
+        long window = Duration.between(rule.getDayStart(), rule.getDayEnd()).toMinutes();
+        long perDay = (window + rule.getGapMinutes()) / (rule.getSlotMinutes() + rule.getGapMinutes());
+        LocalDate today = LocalDate.now();
+        LocalDate endDate = rule.getStartDate().plusWeeks(rule.getWeeks());
+        long days = 0;
+        for (LocalDate date = rule.getStartDate(); date.isBefore(endDate); date = date.plusDays(1)) {
+            if (!date.isBefore(today) && rule.getDaysOfWeek().contains(date.getDayOfWeek())) {
+                days++;
+            }
+        }
+        return days * perDay;
+    }
+
+    private boolean conflicts(List<CreateAppointmentRequest> sortedSlots, List<AppointmentEntity> existing) {
+        // Both lists are ordered by start time; skip existing rows that end before the
+        // current slot starts, then the next remaining row is the only overlap candidate
+        int j = 0;
+        for (CreateAppointmentRequest slot : sortedSlots) {
+            while (j < existing.size() && !existing.get(j).getEndTime().isAfter(slot.getStartTime())) {
+                j++;
+            }
+            if (j < existing.size() && existing.get(j).getStartTime().isBefore(slot.getEndTime())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,21 +1,71 @@
 package org.example.business.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.example.business.AppointmentEventOutbox;
+import org.example.business.AppointmentMapper;
+import org.example.business.AvailabilityIndex;
+import org.example.business.AvailableSlotsResponseCache;
 import org.example.business.CancelAppointment;
+import org.example.business.ConflictRetry;
+import org.example.business.exception.AppointmentConflictException;
+import org.example.domain.AppointmentStatus;
 import org.example.persistance.AppointmentRepository;
+import org.example.persistance.AppointmentTombstoneRepository;
 import org.example.persistance.entity.AppointmentEntity;
+import org.example.persistance.entity.AppointmentTombstoneEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 @RequiredArgsConstructor
 public class CancelAppointmentImpl implements CancelAppointment {
 
     private final AppointmentRepository appointmentRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailableSlotsResponseCache availableSlotsResponseCache;
+    private final ConflictRetry conflictRetry;
+    private final AppointmentEventOutbox appointmentEventOutbox;
+    private final AppointmentTombstoneRepository appointmentTombstoneRepository;
 
     @Override
     public void cancel(Long appointmentId, String userKeycloakId) {
-        AppointmentEntity entity = appointmentRepository.findById(appointmentId)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+        cancel(appointmentId, userKeycloakId, null);
+    }
+
+    @Override
+    public void cancel(Long appointmentId, String userKeycloakId, Long expectedVersion) {
+        // Single conditional UPDATE: matches only if the user is the therapist or patient
+        // and the appointment is still AVAILABLE or BOOKED; a booked slot loses its patient.
+        // The cancelled event (naming the former patient) is recorded in the same transaction.
+        // Lock timeouts and deadlocks are retried a bounded number of times.
+        AppointmentEntity cancelled = conflictRetry.execute(() -> {
+            AppointmentEntity entity = appointmentRepository
+                    .cancelIfActive(appointmentId, userKeycloakId, expectedVersion, LocalDateTime.now())
+                    .orElseThrow(() -> notCancelled(appointmentId, userKeycloakId, expectedVersion));
+            appointmentEventOutbox.append(AppointmentEventOutbox.APPOINTMENT_CANCELLED,
+                    AppointmentMapper.toAppointment(entity));
+            if (entity.getPatientKeycloakId() != null) {
+                // The slot no longer names the patient, so their delta sync needs a tombstone
+                appointmentTombstoneRepository.save(AppointmentTombstoneEntity.builder()
+                        .appointmentId(entity.getId())
+                        .userKeycloakId(entity.getPatientKeycloakId())
+                        .deletedAt(entity.getUpdatedAt())
+                        .build());
+            }
+            return entity;
+        });
+
+        availabilityIndex.remove(cancelled.getTherapistKeycloakId(), cancelled.getStartTime(), cancelled.getId());
+        availableSlotsResponseCache.invalidate(cancelled.getTherapistKeycloakId());
+    }
+
+    private RuntimeException notCancelled(Long appointmentId, String userKeycloakId, Long expectedVersion) {
+        // Only reached when the UPDATE matched nothing: find out why
+        AppointmentEntity entity = appointmentRepository.findById(appointmentId).orElse(null);
+        if (entity == null) {
+            return new RuntimeException("Appointment not found");
+        }
 
         // Verify user is either the therapist or patient
         boolean isTherapist = entity.getTherapistKeycloakId().equals(userKeycloakId);
@@ -23,22 +73,18 @@ public class CancelAppointmentImpl implements CancelAppointment {
                 entity.getPatientKeycloakId().equals(userKeycloakId);
 
         if (!isTherapist && !isPatient) {
-            throw new RuntimeException("User not authorized to cancel this appointment");
+            return new RuntimeException("User not authorized to cancel this appointment");
         }
 
-        // Check if appointment can be cancelled
-        if ("CANCELLED".equals(entity.getStatus()) || "COMPLETED".equals(entity.getStatus())) {
-            throw new RuntimeException("Appointment cannot be cancelled");
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            return new AppointmentConflictException("Appointment was modified by another request");
         }
 
-        // If appointment was booked, make it available again
-        if ("BOOKED".equals(entity.getStatus())) {
-            entity.setPatientKeycloakId(null);
-            entity.setStatus("CANCELLED");
-        } else {
-            entity.setStatus("CANCELLED");
+        if (!entity.getStatus().canTransitionTo(AppointmentStatus.CANCELLED)) {
+            return new AppointmentConflictException("Appointment cannot be cancelled");
         }
 
-        appointmentRepository.save(entity);
+        // Cancellable now, so it changed between the UPDATE and this read
+        return new AppointmentConflictException("Appointment was modified by another request");
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,34 @@
 package org.example.business.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.example.business.AppointmentEventOutbox;
+import org.example.business.AppointmentMapper;
+import org.example.business.AvailabilityIndex;
+import org.example.business.AvailableSlotsResponseCache;
 import org.example.business.CreateAppointment;
+import org.example.business.exception.AppointmentConflictException;
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
 import org.example.persistance.AppointmentRepository;
 import org.example.persistance.entity.AppointmentEntity;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class CreateAppointmentImpl implements CreateAppointment {
 
     private final AppointmentRepository appointmentRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailableSlotsResponseCache availableSlotsResponseCache;
+    private final AppointmentEventOutbox appointmentEventOutbox;
 
     @Override
+    @Transactional
     public Appointment create(String therapistKeycloakId, LocalDateTime startTime,
                               LocalDateTime endTime, String notes) {
 
@@ -29,35 +42,29 @@ public class CreateAppointmentImpl implements CreateAppointment {
             throw new RuntimeException("End time must be after start time");
         }
 
-        // Check for overlapping appointments
-        if (appointmentRepository.existsByTherapistKeycloakIdAndStartTimeBetween(
-                therapistKeycloakId, startTime.minusMinutes(1), endTime)) {
-            throw new RuntimeException("Time slot conflicts with existing appointment");
-        }
-
         AppointmentEntity entity = AppointmentEntity.builder()
                 .therapistKeycloakId(therapistKeycloakId)
                 .startTime(startTime)
                 .endTime(endTime)
-                .status("AVAILABLE")
+                .status(AppointmentStatus.AVAILABLE)
                 .notes(notes)
                 .build();
 
-        AppointmentEntity saved = appointmentRepository.save(entity);
-        return toAppointment(saved);
-    }
-
-    private Appointment toAppointment(AppointmentEntity entity) {
-        return Appointment.builder()
-                .id(entity.getId())
-                .therapistKeycloakId(entity.getTherapistKeycloakId())
-                .patientKeycloakId(entity.getPatientKeycloakId())
-                .startTime(entity.getStartTime())
-                .endTime(entity.getEndTime())
-                .status(entity.getStatus())
-                .notes(entity.getNotes())
-                .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt())
-                .build();
+        // Overlaps are rejected by the appointments_no_overlap exclusion constraint,
+        // which also covers concurrent creates; flush so the violation surfaces here
+        AppointmentEntity saved;
+        try {
+            saved = appointmentRepository.saveAndFlush(entity);
+        } catch (DataIntegrityViolationException e) {
+            if (AppointmentRepository.isOverlapViolation(e)) {
+                throw new AppointmentConflictException("Time slot conflicts with existing appointment");
+            }
+            throw e;
+        }
+        Appointment appointment = AppointmentMapper.toAppointment(saved);
+        appointmentEventOutbox.append(AppointmentEventOutbox.APPOINTMENT_CREATED, appointment);
+        availabilityIndex.addAfterCommit(List.of(appointment));
+        availableSlotsResponseCache.invalidate(therapistKeycloakId);
+        return appointment;
     }
 }
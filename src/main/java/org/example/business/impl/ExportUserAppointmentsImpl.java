@@ -0,0 +1,32 @@
+package org.example.business.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.example.business.ExportUserAppointments;
+import org.example.domain.Appointment;
+import org.example.persistance.AppointmentArchiveRepository;
+import org.example.persistance.AppointmentRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ExportUserAppointmentsImpl implements ExportUserAppointments {
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(String userKeycloakId, Consumer<Appointment> sink) {
+        // Hand each row to the sink as it is read; projected rows are never managed,
+        // so memory stays flat regardless of how many rows the user has. Live and archived
+        // rows are merged by start time as they are read.
+        try (Stream<Appointment> live = appointmentRepository.streamUserAppointments(userKeycloakId);
+             Stream<Appointment> archived = appointmentArchiveRepository.streamPatientAppointments(userKeycloakId)) {
+            AppointmentHistory.merge(live.iterator(), archived.iterator(), sink);
+        }
+    }
+}
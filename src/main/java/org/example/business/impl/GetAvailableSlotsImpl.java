@@ -1,47 +1,138 @@
 package org.example.business.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.example.business.AppointmentMapper;
+import org.example.business.AvailabilityIndex;
 import org.example.business.GetAvailableSlots;
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentPage;
+import org.example.domain.PageCursor;
 import org.example.persistance.AppointmentRepository;
-import org.example.persistance.entity.AppointmentEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class GetAvailableSlotsImpl implements GetAvailableSlots {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_THERAPISTS = 100;
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+
     private final AppointmentRepository appointmentRepository;
+    private final AvailabilityIndex availabilityIndex;
 
     @Override
     public List<Appointment> getAvailable(String therapistKeycloakId) {
-        // Get all available appointments for the therapist that are in the future
-        List<AppointmentEntity> entities = appointmentRepository
-                .findByTherapistKeycloakIdAndStartTimeAfter(therapistKeycloakId, LocalDateTime.now())
-                .stream()
-                .filter(entity -> "AVAILABLE".equals(entity.getStatus()))
-                .collect(Collectors.toList());
-
-        return entities.stream()
-                .map(this::toAppointment)
-                .collect(Collectors.toList());
+        // Serve from the in-memory index unless it has been switched off. Deliberately not
+        // transactional: an index hit must not borrow a connection, and a miss is one
+        // read-only repository query
+        if (availabilityIndex.isEnabled()) {
+            return availabilityIndex.getAvailable(therapistKeycloakId, this::loadAvailable);
+        }
+        return loadAvailable(therapistKeycloakId);
     }
 
-    private Appointment toAppointment(AppointmentEntity entity) {
-        return Appointment.builder()
-                .id(entity.getId())
-                .therapistKeycloakId(entity.getTherapistKeycloakId())
-                .patientKeycloakId(entity.getPatientKeycloakId())
-                .startTime(entity.getStartTime())
-                .endTime(entity.getEndTime())
-                .status(entity.getStatus())
-                .notes(entity.getNotes())
-                .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt())
+    @Override
+    @Transactional(readOnly = true)
+    public AppointmentPage getAvailable(String therapistKeycloakId, LocalDateTime from, LocalDateTime to,
+                                        String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        // Never page into the past; a stale cursor restarts at the lower bound
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lowerBound = from == null || from.isBefore(now) ? now : from;
+        PageCursor position = new PageCursor(lowerBound, Long.MIN_VALUE);
+        if (cursor != null) {
+            PageCursor decoded = PageCursor.decode(cursor);
+            if (!decoded.getStartTime().isBefore(lowerBound)) {
+                position = decoded;
+            }
+        }
+
+        // Fetch one extra row to know whether another page follows
+        List<Appointment> rows = appointmentRepository.findAvailablePage(
+                therapistKeycloakId, position.getStartTime(), position.getId(),
+                to != null ? to : MAX_TIME, Limit.of(pageSize + 1));
+
+        List<Appointment> appointments = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            Appointment last = appointments.get(appointments.size() - 1);
+            nextCursor = new PageCursor(last.getStartTime(), last.getId()).encode();
+        }
+
+        return AppointmentPage.builder()
+                .appointments(appointments)
+                .nextCursor(nextCursor)
                 .build();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, List<Appointment>> search(Collection<String> therapistKeycloakIds, LocalDateTime from,
+                                                 LocalDateTime to, Duration minDuration, int limitPerTherapist) {
+        // Request order, duplicates and blanks dropped; every therapist gets an entry, even without slots
+        Map<String, List<Appointment>> slotsByTherapist = new LinkedHashMap<>();
+        for (String therapistKeycloakId : therapistKeycloakIds) {
+            if (therapistKeycloakId != null && !therapistKeycloakId.isBlank()) {
+                slotsByTherapist.putIfAbsent(therapistKeycloakId, new ArrayList<>());
+            }
+        }
+        if (slotsByTherapist.size() > MAX_SEARCH_THERAPISTS) {
+            throw new RuntimeException("At most " + MAX_SEARCH_THERAPISTS + " therapists can be searched at once");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lowerBound = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime upperBound = to != null ? to : MAX_TIME;
+        if (slotsByTherapist.isEmpty() || !upperBound.isAfter(lowerBound)) {
+            return slotsByTherapist;
+        }
+
+        int minMinutes = minDuration != null ? (int) Math.max(0, minDuration.toMinutes()) : 0;
+        int perTherapist = Math.min(Math.max(limitPerTherapist, 1), MAX_PAGE_SIZE);
+
+        // One statement for all therapists instead of one request each
+        appointmentRepository.findAvailableForTherapists(slotsByTherapist.keySet(), lowerBound, upperBound,
+                        minMinutes, perTherapist)
+                .forEach(entity -> slotsByTherapist.get(entity.getTherapistKeycloakId())
+                        .add(AppointmentMapper.toAppointment(entity)));
+        return slotsByTherapist;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Appointment> findEarliest(LocalDateTime after, Duration minDuration,
+                                          Collection<String> therapistKeycloakIds, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lowerBound = after == null || after.isBefore(now) ? now : after;
+
+        // Any therapist: one ordered index walk that stops after the first rows
+        if (therapistKeycloakIds == null || therapistKeycloakIds.isEmpty()) {
+            int minMinutes = minDuration != null ? (int) Math.max(0, minDuration.toMinutes()) : 0;
+            return appointmentRepository.findEarliestAvailable(lowerBound, minMinutes, size).stream()
+                    .map(AppointmentMapper::toAppointment)
+                    .toList();
+        }
+
+        // A subset: each therapist's earliest slots from the search, merged by start time
+        return search(therapistKeycloakIds, lowerBound, null, minDuration, size).values().stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Appointment::getStartTime).thenComparing(Appointment::getId))
+                .limit(size)
+                .toList();
+    }
+
+    private List<Appointment> loadAvailable(String therapistKeycloakId) {
+        // Get the therapist's future AVAILABLE slots, filtered and ordered by the database
+        return appointmentRepository.findAvailableSlots(therapistKeycloakId, LocalDateTime.now());
+    }
 }
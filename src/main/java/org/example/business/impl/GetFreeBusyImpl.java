@@ -0,0 +1,100 @@
+package org.example.business.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.example.business.GetFreeBusy;
+import org.example.domain.BusyInterval;
+import org.example.domain.FreeBusy;
+import org.example.persistance.AppointmentRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class GetFreeBusyImpl implements GetFreeBusy {
+
+    // Each divides a day, so slot boundaries fall on the same clock times every day
+    private static final Set<Integer> GRANULARITIES = Set.of(5, 10, 15, 30, 60);
+    private static final Duration MAX_RANGE = Duration.ofDays(366);
+
+    private final AppointmentRepository appointmentRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public FreeBusy getFreeBusy(String therapistKeycloakId, LocalDateTime from, LocalDateTime to,
+                                int granularityMinutes, boolean bitmap) {
+        if (!GRANULARITIES.contains(granularityMinutes)) {
+            throw new RuntimeException("Granularity must be one of " + GRANULARITIES + " minutes");
+        }
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new RuntimeException("A range with 'to' after 'from' is required");
+        }
+        if (Duration.between(from, to).compareTo(MAX_RANGE) > 0) {
+            throw new RuntimeException("Range must not exceed " + MAX_RANGE.toDays() + " days");
+        }
+
+        // Align the start down to a slot boundary so bit i always covers whole clock slots
+        Duration slot = Duration.ofMinutes(granularityMinutes);
+        LocalDateTime midnight = from.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime start = midnight.plus(slot.multipliedBy(slotFloor(midnight, from, slot)));
+        int slots = (int) slotCeil(start, to, slot);
+
+        // One range query for the busy rows; each marks the slots it touches, including
+        // a slot an end time with seconds only reaches into
+        BitSet busy = new BitSet(slots);
+        appointmentRepository.findBusyIntervals(therapistKeycloakId, start, to).forEach(interval -> {
+            int first = (int) Math.max(0, slotFloor(start, interval.getStart(), slot));
+            int last = (int) Math.min(slots, slotCeil(start, interval.getEnd(), slot));
+            if (last > first) {
+                busy.set(first, last);
+            }
+        });
+
+        FreeBusy.FreeBusyBuilder result = FreeBusy.builder()
+                .therapistKeycloakId(therapistKeycloakId)
+                .from(start)
+                .to(to)
+                .granularityMinutes(granularityMinutes)
+                .slots(slots);
+        return bitmap
+                ? result.bitmap(Base64.getEncoder().encodeToString(busy.toByteArray())).build()
+                : result.busy(merge(busy, start, granularityMinutes)).build();
+    }
+
+    /**
+     * Runs of set bits as intervals; back-to-back appointments come out as one block.
+     */
+    private List<BusyInterval> merge(BitSet busy, LocalDateTime start, int granularityMinutes) {
+        List<BusyInterval> intervals = new ArrayList<>();
+        for (int first = busy.nextSetBit(0); first >= 0; first = busy.nextSetBit(first)) {
+            int end = busy.nextClearBit(first);
+            intervals.add(new BusyInterval(
+                    start.plusMinutes((long) first * granularityMinutes),
+                    start.plusMinutes((long) end * granularityMinutes)));
+            first = end;
+        }
+        return intervals;
+    }
+
+    /**
+     * Index of the slot containing {@code time}, counted from {@code start}.
+     */
+    private long slotFloor(LocalDateTime start, LocalDateTime time, Duration slot) {
+        return Math.floorDiv(Duration.between(start, time).toNanos(), slot.toNanos());
+    }
+
+    /**
+     * Number of slots from {@code start} needed to cover up to {@code time}; a partial slot counts.
+     */
+    private long slotCeil(LocalDateTime start, LocalDateTime time, Duration slot) {
+        return -Math.floorDiv(-Duration.between(start, time).toNanos(), slot.toNanos());
+    }
+}
@@ -3,50 +3,71 @@ package org.example.business.impl;
 import lombok.RequiredArgsConstructor;
 import org.example.business.GetUserAppointments;
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentPage;
+import org.example.domain.PageCursor;
+import org.example.persistance.AppointmentArchiveRepository;
 import org.example.persistance.AppointmentRepository;
-import org.example.persistance.entity.AppointmentEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class GetUserAppointmentsImpl implements GetUserAppointments {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 12, 31, 23, 59);
+
     private final AppointmentRepository appointmentRepository;
+    private final AppointmentArchiveRepository appointmentArchiveRepository;
 
     @Override
     public List<Appointment> getUserAppointments(String userKeycloakId) {
-        // Get appointments where user is either therapist or patient
-        List<AppointmentEntity> asPatient = appointmentRepository
-                .findByPatientKeycloakId(userKeycloakId);
-
-        List<AppointmentEntity> asTherapist = appointmentRepository
-                .findByTherapistKeycloakIdAndStatus(userKeycloakId, "BOOKED")
-                .stream()
-                .filter(e -> e.getPatientKeycloakId() != null)
-                .collect(Collectors.toList());
-
-        // Combine and remove duplicates
-        return Stream.concat(asPatient.stream(), asTherapist.stream())
-                .distinct()
-                .map(this::toAppointment)
-                .collect(Collectors.toList());
+        // One query for both roles, ordered by start time; each row appears once.
+        // Finished appointments the lifecycle job archived stay in the patient's history.
+        List<Appointment> live = appointmentRepository.findUserAppointments(userKeycloakId);
+        return AppointmentHistory.merge(live, appointmentArchiveRepository.findPatientAppointments(userKeycloakId));
     }
 
-    private Appointment toAppointment(AppointmentEntity entity) {
-        return Appointment.builder()
-                .id(entity.getId())
-                .therapistKeycloakId(entity.getTherapistKeycloakId())
-                .patientKeycloakId(entity.getPatientKeycloakId())
-                .startTime(entity.getStartTime())
-                .endTime(entity.getEndTime())
-                .status(entity.getStatus())
-                .notes(entity.getNotes())
-                .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt())
+    @Override
+    public AppointmentPage getUserAppointments(String userKeycloakId, LocalDateTime from, LocalDateTime to,
+                                               String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        LocalDateTime lowerBound = from != null ? from : MIN_TIME;
+        PageCursor position = new PageCursor(lowerBound, Long.MIN_VALUE);
+        if (cursor != null) {
+            PageCursor decoded = PageCursor.decode(cursor);
+            if (!decoded.getStartTime().isBefore(lowerBound)) {
+                position = decoded;
+            }
+        }
+
+        // Fetch one extra row to know whether another page follows; the first pageSize + 1
+        // rows of the merged order are among the first pageSize + 1 of each source
+        LocalDateTime upperBound = to != null ? to : MAX_TIME;
+        List<Appointment> live = appointmentRepository.findUserPage(
+                userKeycloakId, position.getStartTime(), position.getId(), upperBound, Limit.of(pageSize + 1));
+        List<Appointment> merged = AppointmentHistory.merge(live, appointmentArchiveRepository.findPatientPage(
+                userKeycloakId, position.getStartTime(), position.getId(), upperBound, Limit.of(pageSize + 1)));
+        List<Appointment> rows = merged.size() > pageSize + 1 ? merged.subList(0, pageSize + 1) : merged;
+
+        List<Appointment> appointments = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            Appointment last = appointments.get(appointments.size() - 1);
+            nextCursor = new PageCursor(last.getStartTime(), last.getId()).encode();
+        }
+
+        return AppointmentPage.builder()
+                .appointments(appointments)
+                .nextCursor(nextCursor)
                 .build();
     }
 }
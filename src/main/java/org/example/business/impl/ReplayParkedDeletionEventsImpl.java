@@ -0,0 +1,87 @@
+package org.example.business.impl;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.business.ReplayParkedDeletionEvents;
+import org.example.config.RabbitMQConfig;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class ReplayParkedDeletionEventsImpl implements ReplayParkedDeletionEvents {
+
+    private static final int MAX_REPLAY = 10_000;
+    private static final int CONFIRM_BATCH = 100;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final long confirmTimeoutMillis;
+
+    public ReplayParkedDeletionEventsImpl(RabbitTemplate rabbitTemplate,
+                                          @Value("${scheduling.account-deletion.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmTimeoutMillis = confirmTimeout.toMillis();
+    }
+
+    @Override
+    public long countParked() {
+        return rabbitTemplate.execute(channel ->
+                channel.messageCount(RabbitMQConfig.SCHEDULING_DELETION_PARKING_LOT_QUEUE));
+    }
+
+    @Override
+    public int replay(int max) {
+        if (max < 1 || max > MAX_REPLAY) {
+            throw new RuntimeException("Can replay between 1 and " + MAX_REPLAY + " events at once");
+        }
+
+        // Acknowledge only what the broker has confirmed: a crash in between replays a message
+        // twice, which the consumer's processed-event check turns into a no-op, but never loses one.
+        // Confirms are awaited per batch, then the batch is acknowledged up to its last delivery.
+        int replayed = rabbitTemplate.execute(channel -> {
+            channel.confirmSelect();
+            int count = 0;
+            boolean drained = false;
+            while (count < max && !drained) {
+                long lastDeliveryTag = -1;
+                int batch = Math.min(CONFIRM_BATCH, max - count);
+                for (int i = 0; i < batch; i++) {
+                    GetResponse response = channel.basicGet(RabbitMQConfig.SCHEDULING_DELETION_PARKING_LOT_QUEUE, false);
+                    if (response == null) {
+                        drained = true;
+                        break;
+                    }
+                    channel.basicPublish("", RabbitMQConfig.SCHEDULING_DELETION_QUEUE,
+                            withoutRetryHeaders(response.getProps()), response.getBody());
+                    lastDeliveryTag = response.getEnvelope().getDeliveryTag();
+                    count++;
+                }
+                if (lastDeliveryTag >= 0) {
+                    channel.waitForConfirmsOrDie(confirmTimeoutMillis);
+                    channel.basicAck(lastDeliveryTag, true);
+                }
+            }
+            return count;
+        });
+
+        log.info("Replayed {} parked account deletion events", replayed);
+        return replayed;
+    }
+
+    private AMQP.BasicProperties withoutRetryHeaders(AMQP.BasicProperties properties) {
+        // A replayed event gets the full set of retries again
+        Map<String, Object> headers = properties.getHeaders() != null
+                ? new HashMap<>(properties.getHeaders())
+                : new HashMap<>();
+        headers.remove(RabbitMQConfig.RETRY_COUNT_HEADER);
+        headers.remove(RabbitMQConfig.PARKED_REASON_HEADER);
+        headers.remove(RabbitMQConfig.PARKED_AT_HEADER);
+        return properties.builder().headers(headers).build();
+    }
+}
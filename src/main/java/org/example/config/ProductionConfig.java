@@ -0,0 +1,47 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+/**
+ * Settings of the prod profile that cannot be expressed in application-prod.yml
+ */
+@Configuration
+@Profile("prod")
+public class ProductionConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sampledSqlLogging(
+            @Value("${scheduling.sql-log.sample-rate:0.001}") double sampleRate) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SampledSqlLogger(sampleRate));
+    }
+
+    /**
+     * Size the Hikari pool from the CPU count (cores * connections-per-core + 1) unless
+     * a size is configured explicitly. More connections than the database can run in
+     * parallel only adds queueing inside Postgres; a fixed pool avoids reconnect churn.
+     */
+    @Bean
+    public static BeanPostProcessor hikariPoolSizing(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                    int perCore = environment.getProperty("scheduling.datasource.connections-per-core", Integer.class, 2);
+                    int poolSize = Runtime.getRuntime().availableProcessors() * Math.max(1, perCore) + 1;
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,13 +1,19 @@
 package org.example.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * RabbitMQ Configuration for Account Deletion
  * This configuration should be included in all services that participate in account deletion
@@ -18,6 +24,10 @@ public class RabbitMQConfig {
     // Exchange name
     public static final String ACCOUNT_DELETION_EXCHANGE = "account.deletion.exchange";
 
+    // Exchange for appointment domain events published from the outbox;
+    // routing keys are appointment.created, appointment.booked and appointment.cancelled
+    public static final String APPOINTMENT_EVENTS_EXCHANGE = "appointment.events.exchange";
+
     // Queue names
     public static final String ASSIGNMENT_DELETION_QUEUE = "assignment.deletion.queue";
     public static final String SCHEDULING_DELETION_QUEUE = "scheduling.deletion.queue";
@@ -26,6 +36,18 @@ public class RabbitMQConfig {
     // Routing key
     public static final String ACCOUNT_DELETION_ROUTING_KEY = "account.deleted";
 
+    // Failed deletion events wait in a retry queue per delay, then dead-letter back to
+    // scheduling.deletion.queue. After the last delay they are parked until replayed by hand.
+    public static final List<Duration> SCHEDULING_DELETION_RETRY_DELAYS = List.of(
+            Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(2), Duration.ofMinutes(10));
+    public static final String SCHEDULING_DELETION_PARKING_LOT_QUEUE = "scheduling.deletion.parking-lot";
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    public static final String PARKED_REASON_HEADER = "x-parked-reason";
+    public static final String PARKED_AT_HEADER = "x-parked-at";
+
+    // Listener container factory that hands deletion events to the consumer in batches
+    public static final String DELETION_BATCH_LISTENER_FACTORY = "deletionBatchListenerFactory";
+
     /**
      * Declare the topic exchange for account deletion events
      */
@@ -34,6 +56,14 @@ public class RabbitMQConfig {
         return new TopicExchange(ACCOUNT_DELETION_EXCHANGE);
     }
 
+    /**
+     * Declare the topic exchange for appointment domain events; consumers bind their own queues
+     */
+    @Bean
+    public TopicExchange appointmentEventsExchange() {
+        return new TopicExchange(APPOINTMENT_EVENTS_EXCHANGE);
+    }
+
     /**
      * Queue for Assignment Service to process deletions
      */
@@ -50,6 +80,34 @@ public class RabbitMQConfig {
         return new Queue(SCHEDULING_DELETION_QUEUE, true); // durable queue
     }
 
+    /**
+     * Delayed-retry queues for the Scheduling deletion queue. Messages expire after the
+     * queue's TTL and are dead-lettered through the default exchange back to the main queue.
+     * The delay is part of the name because queue arguments cannot change once declared.
+     */
+    @Bean
+    public Declarables schedulingDeletionRetryQueues() {
+        return new Declarables(SCHEDULING_DELETION_RETRY_DELAYS.stream()
+                .map(delay -> QueueBuilder.durable(schedulingDeletionRetryQueue(delay))
+                        .ttl((int) delay.toMillis())
+                        .deadLetterExchange("")
+                        .deadLetterRoutingKey(SCHEDULING_DELETION_QUEUE)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * Parking lot for deletion events that failed every retry or could not be read
+     */
+    @Bean
+    public Queue schedulingDeletionParkingLotQueue() {
+        return QueueBuilder.durable(SCHEDULING_DELETION_PARKING_LOT_QUEUE).build();
+    }
+
+    public static String schedulingDeletionRetryQueue(Duration delay) {
+        return "scheduling.deletion.retry." + delay.toSeconds() + "s";
+    }
+
     /**
      * Queue for Journal Service to process deletions
      */
@@ -108,11 +166,27 @@ public class RabbitMQConfig {
         template.setMessageConverter(jsonMessageConverter());
         return template;
     }
-}
-
-
-
-
-
-
 
+    /**
+     * Batch listener factory for account deletion events: up to batch-size messages are
+     * delivered to the listener together, with enough prefetch to fill the next batch
+     */
+    @Bean(DELETION_BATCH_LISTENER_FACTORY)
+    public SimpleRabbitListenerContainerFactory deletionBatchListenerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${scheduling.account-deletion.batch-size:100}") int batchSize,
+            @Value("${scheduling.account-deletion.prefetch:250}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setReceiveTimeout(1000L); // deliver a partial batch after 1s without new messages
+        // Failures are re-routed through the retry queues by the consumer itself, so an
+        // exception only escapes when that publish fails; keep the messages in that case
+        factory.setDefaultRequeueRejected(true);
+        return factory;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a random sample of the SQL Hibernate sends, so production shows which statements
+ * run without paying for show-sql on every one. Statements are passed through unchanged.
+ */
+@Slf4j
+public class SampledSqlLogger implements StatementInspector {
+
+    private final double sampleRate;
+
+    public SampledSqlLogger(double sampleRate) {
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Sampled SQL: {}", sql);
+        }
+        return sql;
+    }
+}
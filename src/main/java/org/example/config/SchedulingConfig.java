@@ -0,0 +1,12 @@
+package org.example.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs (e.g. the appointment event outbox relay)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
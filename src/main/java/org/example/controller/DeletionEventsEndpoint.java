@@ -0,0 +1,39 @@
+package org.example.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.business.ReplayParkedDeletionEvents;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Operations on account deletion events that exhausted their retries. An actuator endpoint
+ * rather than a controller: it is served on the management port, which is not routed
+ * through the gateway, so only operators inside the cluster can re-inject deletions.
+ * GET /actuator/deletionevents counts parked events;
+ * POST /actuator/deletionevents with {"max": 1000} replays them.
+ */
+@Component
+@Endpoint(id = "deletionevents")
+@RequiredArgsConstructor
+public class DeletionEventsEndpoint {
+
+    private static final int DEFAULT_REPLAY = 1000;
+
+    private final ReplayParkedDeletionEvents replayParkedDeletionEvents;
+
+    @ReadOperation
+    public Map<String, Long> parked() {
+        return Map.of("parked", replayParkedDeletionEvents.countParked());
+    }
+
+    @WriteOperation
+    public Map<String, Integer> replay(@Nullable Integer max) {
+        int replayed = replayParkedDeletionEvents.replay(max != null ? max : DEFAULT_REPLAY);
+        return Map.of("replayed", replayed);
+    }
+}
@@ -1,27 +1,59 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.example.business.*;
+import org.example.business.dto.AppointmentChangesResponse;
+import org.example.business.dto.AppointmentPageResponse;
 import org.example.business.dto.AppointmentResponse;
 import org.example.business.dto.BookAppointmentRequest;
+import org.example.business.dto.BulkCreateAppointmentsRequest;
 import org.example.business.dto.CreateAppointmentRequest;
+import org.example.business.exception.AppointmentConflictException;
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentChanges;
+import org.example.domain.AppointmentPage;
+import org.example.domain.FreeBusy;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 //@RequestMapping("/api/appointments")
 @RequiredArgsConstructor
 public class SchedulingController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final CreateAppointment createAppointment;
+    private final BulkCreateAppointments bulkCreateAppointments;
     private final GetAvailableSlots getAvailableSlots;
+    private final AvailableSlotsResponseCache availableSlotsResponseCache;
     private final BookAppointment bookAppointment;
     private final CancelAppointment cancelAppointment;
     private final GetUserAppointments getUserAppointments;
+    private final GetUserAppointmentChanges getUserAppointmentChanges;
+    private final ExportUserAppointments exportUserAppointments;
+    private final GetFreeBusy getFreeBusy;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<AppointmentResponse> createAppointmentSlot(
@@ -35,74 +67,224 @@ public class SchedulingController {
                 request.getNotes()
         );
 
-        return ResponseEntity.ok(toResponse(appointment));
+        return ResponseEntity.ok(AppointmentMapper.toResponse(appointment));
     }
 
-    @GetMapping("/therapist/{therapistId}/available")
-    public ResponseEntity<List<AppointmentResponse>> getAvailableAppointments(
+    @PostMapping("/bulk")
+    public ResponseEntity<List<AppointmentResponse>> createAppointmentSlots(
+            @RequestHeader("X-User-Id") String therapistKeycloakId,
+            @RequestBody BulkCreateAppointmentsRequest request) {
+
+        List<Appointment> appointments = request.getRecurrence() != null
+                ? bulkCreateAppointments.createRecurring(therapistKeycloakId, request.getRecurrence(), request.getNotes())
+                : bulkCreateAppointments.createAll(therapistKeycloakId, request.getSlots());
+
+        return ResponseEntity.ok(AppointmentMapper.toResponses(appointments));
+    }
+
+    @GetMapping(value = "/therapist/{therapistId}/available", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAvailableAppointments(
             @PathVariable String therapistId) {
 
-        List<Appointment> appointments = getAvailableSlots.getAvailable(therapistId);
+        // Same bytes for every patient looking at this therapist; built once per cache entry
+        AvailableSlotsResponseCache.CachedResponse cached = availableSlotsResponseCache.get(therapistId,
+                id -> writeJson(AppointmentMapper.toResponses(getAvailableSlots.getAvailable(id))));
+
+        // Spring answers 304 Not Modified when If-None-Match carries this ETag
+        return ResponseEntity.ok()
+                .eTag(cached.eTag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cached.body());
+    }
+
+    @GetMapping("/therapist/{therapistId}/available/page")
+    public ResponseEntity<AppointmentPageResponse> getAvailableAppointmentsPage(
+            @PathVariable String therapistId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
 
-        List<AppointmentResponse> responses = appointments.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        AppointmentPage page = getAvailableSlots.getAvailable(therapistId, from, to, cursor, limit);
+        return ResponseEntity.ok(AppointmentMapper.toResponse(page));
+    }
+
+    @GetMapping("/therapists/available")
+    public ResponseEntity<Map<String, List<AppointmentResponse>>> searchAvailableAppointments(
+            @RequestParam List<String> therapistIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer minDurationMinutes,
+            @RequestParam(defaultValue = "5") int limitPerTherapist) {
+
+        // Next slots of several therapists in one query, grouped by therapist id
+        Map<String, List<Appointment>> slots = getAvailableSlots.search(therapistIds, from, to,
+                minDurationMinutes != null ? Duration.ofMinutes(minDurationMinutes) : null, limitPerTherapist);
 
+        Map<String, List<AppointmentResponse>> responses = new LinkedHashMap<>();
+        slots.forEach((therapistId, appointments) ->
+                responses.put(therapistId, AppointmentMapper.toResponses(appointments)));
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/therapists/available/earliest")
+    public ResponseEntity<List<AppointmentResponse>> getEarliestAvailableAppointments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(required = false) Integer minDurationMinutes,
+            @RequestParam(required = false) List<String> therapistIds,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        // First free slots with any therapist (or any of the listed ones), earliest first
+        List<Appointment> slots = getAvailableSlots.findEarliest(after,
+                minDurationMinutes != null ? Duration.ofMinutes(minDurationMinutes) : null, therapistIds, limit);
+        return ResponseEntity.ok(AppointmentMapper.toResponses(slots));
+    }
+
+    @GetMapping("/therapist/{therapistId}/freebusy")
+    public ResponseEntity<FreeBusy> getTherapistFreeBusy(
+            @PathVariable String therapistId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "15") int granularityMinutes,
+            @RequestParam(defaultValue = "intervals") String format) {
+
+        // "intervals" = merged busy blocks, "bitmap" = one bit per slot, base64
+        if (!"intervals".equals(format) && !"bitmap".equals(format)) {
+            throw new RuntimeException("Format must be 'intervals' or 'bitmap'");
+        }
+        FreeBusy freeBusy = getFreeBusy.getFreeBusy(therapistId, from, to, granularityMinutes, "bitmap".equals(format));
+        return ResponseEntity.ok(freeBusy);
+    }
+
     @PostMapping("/{appointmentId}/book")
     public ResponseEntity<AppointmentResponse> bookAppointmentSlot(
             @PathVariable Long appointmentId,
             @RequestHeader("X-User-Id") String patientKeycloakId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody(required = false) BookAppointmentRequest request) {
 
         String notes = request != null ? request.getNotes() : null;
-        Appointment appointment = bookAppointment.book(appointmentId, patientKeycloakId, notes);
+        Appointment appointment = bookAppointment.book(appointmentId, patientKeycloakId, notes, parseVersion(ifMatch));
 
-        return ResponseEntity.ok(toResponse(appointment));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(appointment.getVersion()))
+                .body(AppointmentMapper.toResponse(appointment));
     }
 
     @DeleteMapping("/{appointmentId}")
     public ResponseEntity<String> cancelAppointmentSlot(
             @PathVariable Long appointmentId,
-            @RequestHeader("X-User-Id") String userKeycloakId) {
+            @RequestHeader("X-User-Id") String userKeycloakId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-        cancelAppointment.cancel(appointmentId, userKeycloakId);
+        cancelAppointment.cancel(appointmentId, userKeycloakId, parseVersion(ifMatch));
         return ResponseEntity.ok("Appointment cancelled successfully");
     }
 
     @GetMapping("/user")
     public ResponseEntity<List<AppointmentResponse>> getUserAppointmentsList(
-            @RequestHeader("X-User-Id") String userKeycloakId) {
+            @RequestHeader("X-User-Id") String userKeycloakId,
+            WebRequest webRequest) {
+
+        // One index lookup decides whether the list changed; 304 skips the fetch entirely.
+        // Validated by ETag only: HTTP dates have whole seconds while updated_at does not, so
+        // If-Modified-Since would answer 304 to a change made in the same second. No
+        // Last-Modified either, since Spring re-checks it against If-Modified-Since.
+        LocalDateTime lastModified = getUserAppointmentChanges.getLastModified(userKeycloakId);
+        String eTag = listETag(userKeycloakId, lastModified);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
 
         List<Appointment> appointments = getUserAppointments.getUserAppointments(userKeycloakId);
 
-        List<AppointmentResponse> responses = appointments.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(AppointmentMapper.toResponses(appointments));
+    }
 
-        return ResponseEntity.ok(responses);
+    @GetMapping("/user/changes")
+    public ResponseEntity<AppointmentChangesResponse> getUserAppointmentChangesList(
+            @RequestHeader("X-User-Id") String userKeycloakId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+
+        AppointmentChanges changes = getUserAppointmentChanges.getChanges(userKeycloakId, since);
+        return ResponseEntity.ok(AppointmentMapper.toResponse(changes));
     }
 
-    private AppointmentResponse toResponse(Appointment appointment) {
-        return AppointmentResponse.builder()
-                .id(appointment.getId())
-                .therapistKeycloakId(appointment.getTherapistKeycloakId())
-                .patientKeycloakId(appointment.getPatientKeycloakId())
-                .startTime(appointment.getStartTime())
-                .endTime(appointment.getEndTime())
-                .status(appointment.getStatus())
-                .notes(appointment.getNotes())
-                .createdAt(appointment.getCreatedAt())
-                .updatedAt(appointment.getUpdatedAt())
-                .build();
+    @GetMapping("/user/page")
+    public ResponseEntity<AppointmentPageResponse> getUserAppointmentsPage(
+            @RequestHeader("X-User-Id") String userKeycloakId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        AppointmentPage page = getUserAppointments.getUserAppointments(userKeycloakId, from, to, cursor, limit);
+        return ResponseEntity.ok(AppointmentMapper.toResponse(page));
     }
-}
 
+    @GetMapping(value = "/user/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUserAppointmentsList(
+            @RequestHeader("X-User-Id") String userKeycloakId) {
 
+        // One JSON document per line, written while the rows are being read
+        StreamingResponseBody body = outputStream ->
+                exportUserAppointments.export(userKeycloakId, appointment -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(AppointmentMapper.toResponse(appointment)));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
 
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @ExceptionHandler(AppointmentConflictException.class)
+    public ResponseEntity<String> handleConflict(AppointmentConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
 
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> handleConcurrencyFailure(ConcurrencyFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Appointment was modified concurrently, please retry");
+    }
 
+    /**
+     * The list ETag is the user's last change, so it only moves when the list can have changed.
+     */
+    private String listETag(String userKeycloakId, LocalDateTime lastModified) {
+        return DigestUtils.md5DigestAsHex((userKeycloakId + "|" + lastModified).getBytes(StandardCharsets.UTF_8));
+    }
 
+    private byte[] writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize response", e);
+        }
+    }
 
+    /**
+     * Read the appointment version from an If-Match header such as "3" or W/"3".
+     */
+    private Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid If-Match header");
+        }
+    }
+}
@@ -17,8 +17,20 @@ public class Appointment {
     private String patientKeycloakId;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
-    private String status; // AVAILABLE, BOOKED, CANCELLED, COMPLETED
+    private AppointmentStatus status;
     private String notes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+    private String role; // PATIENT or THERAPIST in a user's own list, otherwise null
+
+    /**
+     * Constructor used by the repository projections that carry no role.
+     */
+    public Appointment(Long id, String therapistKeycloakId, String patientKeycloakId,
+                       LocalDateTime startTime, LocalDateTime endTime, AppointmentStatus status, String notes,
+                       LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this(id, therapistKeycloakId, patientKeycloakId, startTime, endTime, status, notes,
+                createdAt, updatedAt, version, null);
+    }
 }
@@ -0,0 +1,20 @@
+package org.example.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentChanges {
+    private List<Appointment> appointments; // Added or changed, still in the user's list
+    private List<Long> removedIds;          // No longer in the user's list; unknown ids can be ignored
+    private LocalDateTime watermark;        // Pass as "since" on the next sync
+    private boolean fullSync;               // True when appointments is the whole list and replaces it
+}
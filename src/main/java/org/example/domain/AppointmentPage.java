@@ -0,0 +1,17 @@
+package org.example.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentPage {
+    private List<Appointment> appointments;
+    private String nextCursor; // Null on the last page
+}
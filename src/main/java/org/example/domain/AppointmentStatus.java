@@ -0,0 +1,54 @@
+package org.example.domain;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle of an appointment slot. Stored as its {@link #getCode() code} in a smallint
+ * column; codes are fixed and must never be reused or renumbered.
+ */
+public enum AppointmentStatus {
+    AVAILABLE((short) 1),
+    BOOKED((short) 2),
+    CANCELLED((short) 3),
+    COMPLETED((short) 4),
+    EXPIRED((short) 5); // Was never booked and has ended
+
+    // Allowed changes; anything not listed is rejected. The guarded UPDATEs in
+    // AppointmentRepository mirror these rows.
+    private static final Map<AppointmentStatus, Set<AppointmentStatus>> TRANSITIONS =
+            new EnumMap<>(AppointmentStatus.class);
+
+    static {
+        TRANSITIONS.put(AVAILABLE, EnumSet.of(BOOKED, CANCELLED, EXPIRED));
+        TRANSITIONS.put(BOOKED, EnumSet.of(CANCELLED, COMPLETED));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(AppointmentStatus.class));
+        TRANSITIONS.put(COMPLETED, EnumSet.noneOf(AppointmentStatus.class));
+        TRANSITIONS.put(EXPIRED, EnumSet.noneOf(AppointmentStatus.class));
+    }
+
+    private final short code;
+
+    AppointmentStatus(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public boolean canTransitionTo(AppointmentStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    public static AppointmentStatus fromCode(short code) {
+        for (AppointmentStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown appointment status code: " + code);
+    }
+}
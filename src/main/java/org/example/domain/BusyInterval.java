@@ -0,0 +1,15 @@
+package org.example.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusyInterval {
+    private LocalDateTime start;
+    private LocalDateTime end; // Exclusive
+}
@@ -0,0 +1,23 @@
+package org.example.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeBusy {
+    private String therapistKeycloakId;
+    private LocalDateTime from;          // Aligned down to the granularity; bit 0 starts here
+    private LocalDateTime to;            // Exclusive
+    private int granularityMinutes;
+    private int slots;                   // Number of bits covering [from, to)
+    private List<BusyInterval> busy;     // Merged busy blocks; null when the bitmap was requested
+    private String bitmap;               // Base64 of BitSet.toByteArray(), bit i = slot i busy; null otherwise
+}
@@ -0,0 +1,85 @@
+package org.example.persistance;
+
+import jakarta.persistence.QueryHint;
+import org.example.domain.Appointment;
+import org.example.persistance.entity.AppointmentArchiveEntity;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads of appointments_archive for a user's history. Archived rows are CANCELLED, COMPLETED
+ * or EXPIRED, so of the user-list membership only the patient side can match them: the
+ * therapist side is limited to BOOKED slots. Served by idx_appointments_archive_patient_start.
+ */
+@Repository
+public interface AppointmentArchiveRepository extends JpaRepository<AppointmentArchiveEntity, Long> {
+
+    String PATIENT_PROJECTION = "SELECT new org.example.domain.Appointment(" +
+            "a.id, a.therapistKeycloakId, a.patientKeycloakId, a.startTime, a.endTime, a.status, a.notes, " +
+            "a.createdAt, a.updatedAt, a.version, 'PATIENT') FROM AppointmentArchiveEntity a ";
+
+    /**
+     * All archived appointments of a patient, ordered by (startTime, id) like
+     * AppointmentRepository.findUserAppointments.
+     */
+    @Query(PATIENT_PROJECTION +
+            "WHERE a.patientKeycloakId = :userKeycloakId " +
+            "ORDER BY a.startTime, a.id")
+    List<Appointment> findPatientAppointments(@Param("userKeycloakId") String userKeycloakId);
+
+    /**
+     * Keyset page of a patient's archived appointments, starting strictly after
+     * (afterStart, afterId) and before {@code to}.
+     */
+    @Query(PATIENT_PROJECTION +
+            "WHERE a.patientKeycloakId = :userKeycloakId " +
+            "AND (a.startTime, a.id) > (:afterStart, :afterId) AND a.startTime < :to " +
+            "ORDER BY a.startTime, a.id")
+    List<Appointment> findPatientPage(@Param("userKeycloakId") String userKeycloakId,
+                                      @Param("afterStart") LocalDateTime afterStart,
+                                      @Param("afterId") Long afterId,
+                                      @Param("to") LocalDateTime to,
+                                      Limit limit);
+
+    /**
+     * Stream a patient's archived appointments from a server-side cursor; consume and close
+     * it inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PATIENT_PROJECTION +
+            "WHERE a.patientKeycloakId = :userKeycloakId " +
+            "ORDER BY a.startTime, a.id")
+    Stream<Appointment> streamPatientAppointments(@Param("userKeycloakId") String userKeycloakId);
+
+    /**
+     * Delete at most {@code limit} archived appointments in which any of the users is the
+     * patient or the therapist, and leave a tombstone for a remaining patient so their delta
+     * sync drops it. Same contract as AppointmentRepository.deleteChunkForUsers.
+     */
+    @Transactional
+    @Query(value = "WITH deleted AS (" +
+            "DELETE FROM appointments_archive WHERE id IN (" +
+            "SELECT id FROM appointments_archive " +
+            "WHERE patient_keycloak_id IN (:userIds) OR therapist_keycloak_id IN (:userIds) " +
+            "LIMIT :limit) " +
+            "RETURNING id, patient_keycloak_id), " +
+            "tombstones AS (" +
+            "INSERT INTO appointment_tombstones (appointment_id, user_keycloak_id, deleted_at) " +
+            "SELECT id, patient_keycloak_id, :now FROM deleted " +
+            "WHERE patient_keycloak_id IS NOT NULL AND patient_keycloak_id NOT IN (:userIds)) " +
+            "SELECT CAST(count(*) AS integer) FROM deleted", nativeQuery = true)
+    int deleteChunkForUsers(@Param("userIds") Collection<String> userIds,
+                            @Param("limit") int limit,
+                            @Param("now") LocalDateTime now);
+}
@@ -1,24 +1,355 @@
 package org.example.persistance;
 
+import jakarta.persistence.QueryHint;
+import org.example.domain.Appointment;
+import org.example.domain.BusyInterval;
 import org.example.persistance.entity.AppointmentEntity;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+import org.postgresql.util.PSQLException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<AppointmentEntity, Long> {
 
-    List<AppointmentEntity> findByTherapistKeycloakIdAndStatus(String therapistKeycloakId, String status);
+    // Exclusion constraint declared in schema.sql. Once the table is partitioned each partition
+    // carries its own copy, named <partition>_no_overlap, so match on the suffix.
+    String NO_OVERLAP_CONSTRAINT = "appointments_no_overlap";
+    String NO_OVERLAP_SUFFIX = "_no_overlap";
+    String EXCLUSION_VIOLATION = "23P01";
 
-    List<AppointmentEntity> findByTherapistKeycloakIdAndStartTimeAfter(String therapistKeycloakId, LocalDateTime startTime);
+    /**
+     * Whether the violation is the overlap exclusion constraint, by SQL state and constraint
+     * name rather than by the (localized) server message.
+     */
+    static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                if (!EXCLUSION_VIOLATION.equals(violation.getSQLState())) {
+                    return false;
+                }
+                String constraint = violation.getConstraintName();
+                // Hibernate's Postgres dialect only extracts names of unique, foreign key,
+                // check and not-null violations; the driver reports the name of any constraint
+                if (constraint == null && violation.getSQLException() instanceof PSQLException psql
+                        && psql.getServerErrorMessage() != null) {
+                    constraint = psql.getServerErrorMessage().getConstraint();
+                }
+                return constraint != null && (constraint.equals(NO_OVERLAP_CONSTRAINT)
+                        || (constraint.startsWith("appointments_") && constraint.endsWith(NO_OVERLAP_SUFFIX)));
+            }
+        }
+        return false;
+    }
 
-    List<AppointmentEntity> findByPatientKeycloakId(String patientKeycloakId);
+    // Read paths project into the domain type: one object per row, nothing tracked by the
+    // persistence context. Close with ")" for no role or append USER_ROLE for a user's own list.
+    String APPOINTMENT_PROJECTION = "SELECT new org.example.domain.Appointment(" +
+            "a.id, a.therapistKeycloakId, a.patientKeycloakId, a.startTime, a.endTime, a.status, a.notes, " +
+            "a.createdAt, a.updatedAt, a.version";
+    String USER_ROLE = ", CASE WHEN a.patientKeycloakId = :userKeycloakId THEN 'PATIENT' ELSE 'THERAPIST' END)";
 
-    boolean existsByTherapistKeycloakIdAndStartTimeBetween(String therapistKeycloakId, LocalDateTime start, LocalDateTime end);
+    // Status literals are rendered inline (as their smallint codes), so the planner can match
+    // the partial indexes in schema.sql; a bound status parameter could not use them.
+    // Native statements below use the codes directly: 1 AVAILABLE, 2 BOOKED, 3 CANCELLED,
+    // 4 COMPLETED, 5 EXPIRED.
+    String AVAILABLE = "org.example.domain.AppointmentStatus.AVAILABLE";
+    String BOOKED = "org.example.domain.AppointmentStatus.BOOKED";
+    String CANCELLED = "org.example.domain.AppointmentStatus.CANCELLED";
+    String COMPLETED = "org.example.domain.AppointmentStatus.COMPLETED";
 
-    int deleteByPatientKeycloakId(String patientKeycloakId);
+    /**
+     * A therapist's AVAILABLE slots starting after {@code after}, ordered by start time.
+     * Served by the partial idx_appointments_available.
+     */
+    @Query(APPOINTMENT_PROJECTION + ") FROM AppointmentEntity a " +
+            "WHERE a.therapistKeycloakId = :therapistKeycloakId AND a.status = " + AVAILABLE + " " +
+            "AND a.startTime > :after " +
+            "ORDER BY a.startTime, a.id")
+    List<Appointment> findAvailableSlots(@Param("therapistKeycloakId") String therapistKeycloakId,
+                                         @Param("after") LocalDateTime after);
 
-    int deleteByTherapistKeycloakId(String therapistKeycloakId);
-}
\ No newline at end of file
+    /**
+     * All of a user's appointments in one round trip, projected straight into the domain type:
+     * every appointment where they are the patient, and their booked slots as therapist.
+     * The two branches are served by idx_appointments_patient_start and the partial
+     * idx_appointments_booked; no entities enter the persistence context.
+     */
+    @Query(APPOINTMENT_PROJECTION + USER_ROLE + " FROM AppointmentEntity a " +
+            "WHERE a.patientKeycloakId = :userKeycloakId " +
+            "OR (a.therapistKeycloakId = :userKeycloakId AND a.status = " + BOOKED + " AND a.patientKeycloakId IS NOT NULL) " +
+            "ORDER BY a.startTime, a.id")
+    List<Appointment> findUserAppointments(@Param("userKeycloakId") String userKeycloakId);
+
+    /**
+     * Keyset page of a therapist's AVAILABLE slots, starting strictly after
+     * (afterStart, afterId) and before {@code to}, ordered by (startTime, id).
+     */
+    @Query(APPOINTMENT_PROJECTION + ") FROM AppointmentEntity a " +
+            "WHERE a.therapistKeycloakId = :therapistKeycloakId AND a.status = " + AVAILABLE + " " +
+            "AND (a.startTime, a.id) > (:afterStart, :afterId) AND a.startTime < :to " +
+            "ORDER BY a.startTime, a.id")
+    List<Appointment> findAvailablePage(@Param("therapistKeycloakId") String therapistKeycloakId,
+                                        @Param("afterStart") LocalDateTime afterStart,
+                                        @Param("afterId") Long afterId,
+                                        @Param("to") LocalDateTime to,
+                                        Limit limit);
+
+    /**
+     * Up to {@code perTherapist} AVAILABLE slots of each listed therapist starting in
+     * [from, to) and lasting at least {@code minMinutes}, ordered by therapist, then start
+     * time. One statement: the ids are unnested and each drives a LIMITed lateral scan of
+     * the partial idx_appointments_available, so cost grows with the rows returned rather
+     * than with the therapists' history.
+     */
+    @Query(value = "SELECT s.* FROM unnest(ARRAY[:therapistIds]) AS t(therapist_keycloak_id) " +
+            "CROSS JOIN LATERAL (" +
+            "SELECT * FROM appointments a " +
+            "WHERE a.therapist_keycloak_id = t.therapist_keycloak_id AND a.status = 1 " +
+            "AND a.start_time >= :from AND a.start_time < :to " +
+            "AND a.end_time - a.start_time >= CAST(:minMinutes AS integer) * interval '1 minute' " +
+            "ORDER BY a.start_time, a.id " +
+            "LIMIT :perTherapist) s " +
+            "ORDER BY s.therapist_keycloak_id, s.start_time, s.id", nativeQuery = true)
+    List<AppointmentEntity> findAvailableForTherapists(@Param("therapistIds") Collection<String> therapistIds,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to,
+                                                       @Param("minMinutes") int minMinutes,
+                                                       @Param("perTherapist") int perTherapist);
+
+    /**
+     * The earliest {@code limit} AVAILABLE slots of any therapist starting at or after
+     * {@code after} and lasting at least {@code minMinutes}, ordered by start time. Walks
+     * the partial idx_appointments_available_start in order and stops after {@code limit} rows.
+     */
+    @Query(value = "SELECT * FROM appointments a " +
+            "WHERE a.status = 1 AND a.start_time >= :after " +
+            "AND a.end_time - a.start_time >= CAST(:minMinutes AS integer) * interval '1 minute' " +
+            "ORDER BY a.start_time, a.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<AppointmentEntity> findEarliestAvailable(@Param("after") LocalDateTime after,
+                                                  @Param("minMinutes") int minMinutes,
+                                                  @Param("limit") int limit);
+
+    /**
+     * Keyset page of a user's appointments, as patient or as therapist of a booked slot,
+     * starting strictly after (afterStart, afterId) and before {@code to}.
+     */
+    @Query(APPOINTMENT_PROJECTION + USER_ROLE + " FROM AppointmentEntity a " +
+            "WHERE (a.patientKeycloakId = :userKeycloakId " +
+            "OR (a.therapistKeycloakId = :userKeycloakId AND a.status = " + BOOKED + " AND a.patientKeycloakId IS NOT NULL)) " +
+            "AND (a.startTime, a.id) > (:afterStart, :afterId) AND a.startTime < :to " +
+            "ORDER BY a.startTime, a.id")
+    List<Appointment> findUserPage(@Param("userKeycloakId") String userKeycloakId,
+                                   @Param("afterStart") LocalDateTime afterStart,
+                                   @Param("afterId") Long afterId,
+                                   @Param("to") LocalDateTime to,
+                                   Limit limit);
+
+    /**
+     * Stream all of a user's appointments, as patient or as therapist of a booked slot.
+     * Rows are pulled from a server-side cursor in batches of the fetch size, so the
+     * caller must consume and close the stream inside a transaction. Projected rows are
+     * not managed, so nothing accumulates in the persistence context while streaming.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(APPOINTMENT_PROJECTION + USER_ROLE + " FROM AppointmentEntity a " +
+            "WHERE a.patientKeycloakId = :userKeycloakId " +
+            "OR (a.therapistKeycloakId = :userKeycloakId AND a.status = " + BOOKED + " AND a.patientKeycloakId IS NOT NULL) " +
+            "ORDER BY a.startTime, a.id")
+    Stream<Appointment> streamUserAppointments(@Param("userKeycloakId") String userKeycloakId);
+
+    /**
+     * Non-cancelled slots of a therapist that intersect [from, to), ordered by start time.
+     */
+    @Query("SELECT a FROM AppointmentEntity a " +
+            "WHERE a.therapistKeycloakId = :therapistKeycloakId AND a.status <> " + CANCELLED + " " +
+            "AND a.startTime < :to AND a.endTime > :from " +
+            "ORDER BY a.startTime")
+    List<AppointmentEntity> findOverlapping(@Param("therapistKeycloakId") String therapistKeycloakId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    /**
+     * Start and end of a therapist's BOOKED or COMPLETED appointments that intersect
+     * [from, to), ordered by start time. Only the two columns are read, so ranges of many
+     * months stay cheap; served by idx_appointments_therapist_start.
+     */
+    @Query("SELECT new org.example.domain.BusyInterval(a.startTime, a.endTime) FROM AppointmentEntity a " +
+            "WHERE a.therapistKeycloakId = :therapistKeycloakId " +
+            "AND a.status IN (" + BOOKED + ", " + COMPLETED + ") " +
+            "AND a.startTime < :to AND a.endTime > :from " +
+            "ORDER BY a.startTime")
+    List<BusyInterval> findBusyIntervals(@Param("therapistKeycloakId") String therapistKeycloakId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    /**
+     * Book a slot in one statement. Only a row that is still AVAILABLE (and, when given,
+     * still at the expected version) matches, so of several concurrent bookings exactly
+     * one gets the row back; the others get an empty result. Mirrors the AVAILABLE -> BOOKED
+     * row of the AppointmentStatus transition table.
+     */
+    @Transactional
+    @Query(value = "UPDATE appointments SET status = 2, patient_keycloak_id = :patientKeycloakId, " +
+            "notes = CASE WHEN CAST(:notes AS varchar) IS NULL OR CAST(:notes AS varchar) = '' THEN notes " +
+            "WHEN notes IS NULL THEN 'Patient notes: ' || CAST(:notes AS varchar) " +
+            "ELSE notes || ' | Patient notes: ' || CAST(:notes AS varchar) END, " +
+            "updated_at = :now, version = version + 1 " +
+            "WHERE id = :id AND status = 1 " +
+            "AND (CAST(:expectedVersion AS bigint) IS NULL OR version = CAST(:expectedVersion AS bigint)) " +
+            "RETURNING *", nativeQuery = true)
+    Optional<AppointmentEntity> bookIfAvailable(@Param("id") Long id,
+                                                @Param("patientKeycloakId") String patientKeycloakId,
+                                                @Param("notes") String notes,
+                                                @Param("expectedVersion") Long expectedVersion,
+                                                @Param("now") LocalDateTime now);
+
+    /**
+     * Cancel an AVAILABLE or BOOKED slot on behalf of its therapist or patient in one statement,
+     * optionally only at the expected version. Returns the updated row, or empty when nothing matched.
+     * The stored row loses its patient, but the returned one still carries the patient it had
+     * before cancelling (read from the locked row), so the cancellation event can name them.
+     * Mirrors the AVAILABLE/BOOKED -> CANCELLED rows of the AppointmentStatus transition table.
+     */
+    @Transactional
+    @Query(value = "UPDATE appointments a SET status = 3, patient_keycloak_id = NULL, " +
+            "updated_at = :now, version = a.version + 1 " +
+            "FROM (SELECT id, patient_keycloak_id FROM appointments WHERE id = :id FOR UPDATE) prev " +
+            "WHERE a.id = prev.id AND a.status IN (1, 2) " +
+            "AND (a.therapist_keycloak_id = :userKeycloakId OR a.patient_keycloak_id = :userKeycloakId) " +
+            "AND (CAST(:expectedVersion AS bigint) IS NULL OR a.version = CAST(:expectedVersion AS bigint)) " +
+            "RETURNING a.id, a.therapist_keycloak_id, prev.patient_keycloak_id, a.start_time, a.end_time, " +
+            "a.status, a.notes, a.created_at, a.updated_at, a.version", nativeQuery = true)
+    Optional<AppointmentEntity> cancelIfActive(@Param("id") Long id,
+                                               @Param("userKeycloakId") String userKeycloakId,
+                                               @Param("expectedVersion") Long expectedVersion,
+                                               @Param("now") LocalDateTime now);
+
+    /**
+     * Delete at most {@code limit} appointments in which any of the users is the patient or
+     * the therapist, and leave a tombstone for the remaining party so their delta sync drops
+     * the appointment. Returns the number of deleted appointments. Callers repeat until fewer
+     * than {@code limit} rows are deleted, so a large history is removed in short transactions
+     * instead of one long lock on the whole range.
+     */
+    @Transactional
+    @Query(value = "WITH deleted AS (" +
+            "DELETE FROM appointments WHERE id IN (" +
+            "SELECT id FROM appointments " +
+            "WHERE patient_keycloak_id IN (:userIds) OR therapist_keycloak_id IN (:userIds) " +
+            "LIMIT :limit) " +
+            "RETURNING id, patient_keycloak_id, therapist_keycloak_id), " +
+            "tombstones AS (" +
+            "INSERT INTO appointment_tombstones (appointment_id, user_keycloak_id, deleted_at) " +
+            "SELECT id, therapist_keycloak_id, :now FROM deleted " +
+            "WHERE therapist_keycloak_id NOT IN (:userIds) " +
+            "UNION ALL " +
+            "SELECT id, patient_keycloak_id, :now FROM deleted " +
+            "WHERE patient_keycloak_id IS NOT NULL AND patient_keycloak_id NOT IN (:userIds)) " +
+            "SELECT CAST(count(*) AS integer) FROM deleted", nativeQuery = true)
+    int deleteChunkForUsers(@Param("userIds") Collection<String> userIds,
+                            @Param("limit") int limit,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Mark at most {@code limit} BOOKED appointments that ended before {@code now} COMPLETED.
+     * Rows locked by a concurrent booking or cancellation are skipped and picked up by the
+     * next run. Served by the partial idx_appointments_live_end.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE appointments SET status = 4, updated_at = :now, version = version + 1 " +
+            "WHERE id IN (SELECT id FROM appointments WHERE status = 2 AND end_time <= :now " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int completeEnded(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Mark at most {@code limit} AVAILABLE slots that ended before {@code now} EXPIRED, so
+     * they leave the partial idx_appointments_available and can be archived.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE appointments SET status = 5, updated_at = :now, version = version + 1 " +
+            "WHERE id IN (SELECT id FROM appointments WHERE status = 1 AND end_time <= :now " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int expireEnded(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Move at most {@code limit} CANCELLED, COMPLETED or EXPIRED appointments that ended
+     * before {@code before} into appointments_archive, unchanged. The user-list reads merge
+     * in the archive (AppointmentArchiveRepository), so a moved row stays in the patient's
+     * history and is not reported as removed. Returns the number of moved rows; callers
+     * repeat until fewer than {@code limit} rows are moved.
+     */
+    @Transactional
+    @Query(value = "WITH moved AS (" +
+            "DELETE FROM appointments WHERE id IN (" +
+            "SELECT id FROM appointments WHERE status IN (3, 4, 5) AND end_time < :before " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+            "RETURNING *), " +
+            "archived AS (" +
+            "INSERT INTO appointments_archive (id, therapist_keycloak_id, patient_keycloak_id, start_time, " +
+            "end_time, status, notes, created_at, updated_at, version, archived_at) " +
+            "SELECT id, therapist_keycloak_id, patient_keycloak_id, start_time, end_time, status, notes, " +
+            "created_at, updated_at, version, :now FROM moved) " +
+            "SELECT CAST(count(*) AS integer) FROM moved", nativeQuery = true)
+    int archiveEnded(@Param("before") LocalDateTime before,
+                     @Param("limit") int limit,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Convert appointments into a table range-partitioned by month on start_time, with
+     * partitions up to {@code monthsAhead} months after the current one. Returns false when
+     * it already is partitioned. Locks the table for the length of the copy.
+     */
+    @Transactional
+    @Query(value = "SELECT appointments_partition_by_month(:monthsAhead)", nativeQuery = true)
+    boolean partitionByMonth(@Param("monthsAhead") int monthsAhead);
+
+    /**
+     * Create the monthly partitions up to {@code monthsAhead} months after the current one
+     * that do not exist yet. Returns the number created; 0 when the table is not partitioned.
+     */
+    @Transactional
+    @Query(value = "SELECT appointments_ensure_partitions(:monthsAhead)", nativeQuery = true)
+    int ensurePartitions(@Param("monthsAhead") int monthsAhead);
+
+    /**
+     * Appointments of a user (as patient or therapist, any status) changed after {@code since},
+     * ordered by (updatedAt, id). Served by the *_updated indexes.
+     */
+    @Query(APPOINTMENT_PROJECTION + USER_ROLE + " FROM AppointmentEntity a " +
+            "WHERE (a.patientKeycloakId = :userKeycloakId OR a.therapistKeycloakId = :userKeycloakId) " +
+            "AND a.updatedAt > :since " +
+            "ORDER BY a.updatedAt, a.id")
+    List<Appointment> findChangedForUser(@Param("userKeycloakId") String userKeycloakId,
+                                         @Param("since") LocalDateTime since);
+
+    /**
+     * Latest change affecting a user's list: the newest updated_at of their appointments,
+     * live or archived, or deleted_at of their tombstones. Archived rows only count on the
+     * patient side, like the list. Four index lookups, no rows fetched; null if none.
+     */
+    @Query(value = "SELECT GREATEST(" +
+            "(SELECT max(updated_at) FROM appointments WHERE patient_keycloak_id = :userKeycloakId), " +
+            "(SELECT max(updated_at) FROM appointments WHERE therapist_keycloak_id = :userKeycloakId), " +
+            "(SELECT max(updated_at) FROM appointments_archive WHERE patient_keycloak_id = :userKeycloakId), " +
+            "(SELECT max(deleted_at) FROM appointment_tombstones WHERE user_keycloak_id = :userKeycloakId))",
+            nativeQuery = true)
+    LocalDateTime findLastChangeForUser(@Param("userKeycloakId") String userKeycloakId);
+}
@@ -0,0 +1,27 @@
+package org.example.persistance;
+
+import org.example.persistance.entity.AppointmentTombstoneEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AppointmentTombstoneRepository extends JpaRepository<AppointmentTombstoneEntity, Long> {
+
+    // Served by idx_appointment_tombstones_user_deleted
+    @Query("SELECT DISTINCT t.appointmentId FROM AppointmentTombstoneEntity t " +
+            "WHERE t.userKeycloakId = :userKeycloakId AND t.deletedAt > :since")
+    List<Long> findRemovedAppointmentIds(@Param("userKeycloakId") String userKeycloakId,
+                                         @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AppointmentTombstoneEntity t WHERE t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,29 @@
+package org.example.persistance;
+
+import org.example.persistance.entity.OutboxEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    /**
+     * Takes the relay lock for the caller's transaction, or returns false at once when
+     * another replica holds it.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('appointment_event_relay'))", nativeQuery = true)
+    boolean tryLockRelay();
+
+    /**
+     * Oldest unpublished events in creation order, locked for the caller's transaction.
+     * Ids come from pooled blocks of several replicas, so they do not follow creation order.
+     * Call under {@link #tryLockRelay()}.
+     */
+    @Query(value = "SELECT * FROM outbox_events ORDER BY created_at, id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<OutboxEventEntity> lockNextBatch(@Param("limit") int limit);
+}
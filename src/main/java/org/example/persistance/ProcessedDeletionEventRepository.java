@@ -0,0 +1,26 @@
+package org.example.persistance;
+
+import org.example.persistance.entity.ProcessedDeletionEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+@Repository
+public interface ProcessedDeletionEventRepository extends JpaRepository<ProcessedDeletionEventEntity, String> {
+
+    @Query("SELECT e.id FROM ProcessedDeletionEventEntity e WHERE e.id IN :ids")
+    Set<String> findProcessedIds(@Param("ids") Collection<String> ids);
+
+    // Served by idx_processed_deletion_events_processed_at
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProcessedDeletionEventEntity e WHERE e.processedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,60 @@
+package org.example.persistance.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.domain.AppointmentStatus;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished appointment moved out of the hot table by the lifecycle job. Rows are only
+ * written by AppointmentRepository.archiveEnded and read by the user-list queries; the
+ * table and its indexes are declared in schema.sql.
+ */
+@Entity
+@Immutable
+@Table(name = "appointments_archive")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentArchiveEntity {
+
+    @Id
+    private Long id; // Kept from the hot table
+
+    @Column(nullable = false)
+    private String therapistKeycloakId;
+
+    @Column
+    private String patientKeycloakId;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    // smallint code, see AppointmentStatusConverter
+    @Column(nullable = false)
+    private AppointmentStatus status;
+
+    @Column(length = 1000)
+    private String notes;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
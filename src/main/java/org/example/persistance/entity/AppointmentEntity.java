@@ -5,19 +5,34 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.domain.AppointmentStatus;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        // Per-status partial indexes for the hot AVAILABLE/BOOKED lookups live in schema.sql
+        @Index(name = "idx_appointments_therapist_start",
+                columnList = "therapistKeycloakId, startTime"),
+        @Index(name = "idx_appointments_patient_start",
+                columnList = "patientKeycloakId, startTime"),
+        // Delta sync: max(updated_at) and "changed since" per user
+        @Index(name = "idx_appointments_patient_updated",
+                columnList = "patientKeycloakId, updatedAt"),
+        @Index(name = "idx_appointments_therapist_updated",
+                columnList = "therapistKeycloakId, updatedAt")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class AppointmentEntity {
 
+    // Pooled sequence: Hibernate reserves 50 ids per round trip, which keeps
+    // multi-row inserts batchable (IDENTITY forces one statement per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -32,8 +47,9 @@ public class AppointmentEntity {
     @Column(nullable = false)
     private LocalDateTime endTime;
 
+    // smallint code, see AppointmentStatusConverter
     @Column(nullable = false)
-    private String status; // AVAILABLE, BOOKED, CANCELLED, COMPLETED
+    private AppointmentStatus status;
 
     @Column(length = 1000)
     private String notes;
@@ -44,6 +60,11 @@ public class AppointmentEntity {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; the default lets ddl-auto add the column to a populated table
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
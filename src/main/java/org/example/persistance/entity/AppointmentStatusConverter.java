@@ -0,0 +1,23 @@
+package org.example.persistance.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.example.domain.AppointmentStatus;
+
+/**
+ * Stores {@link AppointmentStatus} as its fixed smallint code rather than the ordinal
+ * (which changes when constants are reordered) or the name (a varchar per row and per index entry).
+ */
+@Converter(autoApply = true)
+public class AppointmentStatusConverter implements AttributeConverter<AppointmentStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(AppointmentStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+
+    @Override
+    public AppointmentStatus convertToEntityAttribute(Short code) {
+        return code != null ? AppointmentStatus.fromCode(code) : null;
+    }
+}
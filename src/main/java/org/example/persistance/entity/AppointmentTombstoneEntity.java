@@ -0,0 +1,39 @@
+package org.example.persistance.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that an appointment left a user's list without a row change the user can see:
+ * it was deleted with the other party's account, or the user's booking was cancelled and
+ * the slot no longer names them. Read by delta sync; purged after the retention period.
+ */
+@Entity
+@Table(name = "appointment_tombstones", indexes = {
+        @Index(name = "idx_appointment_tombstones_user_deleted",
+                columnList = "userKeycloakId, deletedAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentTombstoneEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long appointmentId;
+
+    @Column(nullable = false)
+    private String userKeycloakId; // The user whose list lost the appointment
+
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,50 @@
+package org.example.persistance.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Account deletion event that has already been applied; redeliveries of it are skipped.
+ */
+@Entity
+@Table(name = "processed_deletion_events", indexes = {
+        @Index(name = "idx_processed_deletion_events_processed_at", columnList = "processedAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedDeletionEventEntity implements Persistable<String> {
+
+    @Id
+    @Column(name = "event_id", length = 200)
+    private String id;
+
+    @Column(nullable = false)
+    private String userKeycloakId;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+
+    // Ids are assigned by us, so tell Spring Data to INSERT instead of merging (no SELECT per row)
+    @Transient
+    @Builder.Default
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
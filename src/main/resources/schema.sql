@@ -0,0 +1,208 @@
+-- Runs on every startup after Hibernate's schema update
+-- (spring.jpa.defer-datasource-initialization), so every statement must be idempotent.
+-- Statements end with a caret before the semicolon (spring.sql.init.separator) so that
+-- DO blocks can contain plain semicolons.
+
+-- Appointment ids come from the pooled appointments_seq instead of an IDENTITY column.
+-- Converts a pre-existing IDENTITY column once: existing ids are kept and the sequence is
+-- moved past them. Only then, since a running instance may be handing out ids from a block
+-- it already took from the sequence; later startups leave the sequence alone.
+DO $$
+BEGIN
+    -- Several instances may start at once; only the first converts
+    PERFORM pg_advisory_xact_lock(hashtext('appointments_drop_identity'));
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'appointments' AND column_name = 'id'
+                 AND is_identity = 'YES') THEN
+        ALTER TABLE appointments ALTER COLUMN id DROP IDENTITY;
+        PERFORM setval('appointments_seq', GREATEST(
+                (SELECT last_value FROM appointments_seq),
+                (SELECT COALESCE(MAX(id), 0) + 1 FROM appointments)));
+    END IF;
+END
+$$^;
+
+-- status is stored as the AppointmentStatus code (smallint) instead of the varchar name.
+-- Converts a pre-existing varchar column once. The overlap constraint's predicate compares
+-- against the old names, so it is dropped here and recreated below with the new code.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'appointments' AND column_name = 'status'
+                 AND data_type <> 'smallint') THEN
+        ALTER TABLE appointments DROP CONSTRAINT IF EXISTS appointments_no_overlap;
+        ALTER TABLE appointments ALTER COLUMN status TYPE smallint USING CASE status
+            WHEN 'AVAILABLE' THEN 1
+            WHEN 'BOOKED' THEN 2
+            WHEN 'CANCELLED' THEN 3
+            WHEN 'COMPLETED' THEN 4
+        END;
+    END IF;
+END
+$$^;
+
+-- Partial indexes for the hot statuses: open slots are looked up by therapist and start,
+-- booked ones for the therapist side of a user's list. Each covers only live rows, so
+-- cancelled and past history does not grow them. They replace the full
+-- (therapist, status, start) index; the predicates must match the JPQL literally.
+CREATE INDEX IF NOT EXISTS idx_appointments_available
+    ON appointments (therapist_keycloak_id, start_time, id) WHERE status = 1^;
+CREATE INDEX IF NOT EXISTS idx_appointments_booked
+    ON appointments (therapist_keycloak_id, start_time, id)
+    WHERE status = 2 AND patient_keycloak_id IS NOT NULL^;
+DROP INDEX IF EXISTS idx_appointments_therapist_status_start^;
+
+-- Earliest open slots across all therapists: an ordered walk from the requested time that
+-- stops after the first K rows, however many therapists there are.
+CREATE INDEX IF NOT EXISTS idx_appointments_available_start
+    ON appointments (start_time, id) WHERE status = 1^;
+
+-- The lifecycle job finds slots that have ended among the live ones, and archive
+-- candidates among the finished ones, without scanning the whole table.
+CREATE INDEX IF NOT EXISTS idx_appointments_live_end
+    ON appointments (end_time) WHERE status IN (1, 2)^;
+CREATE INDEX IF NOT EXISTS idx_appointments_finished_end
+    ON appointments (end_time) WHERE status IN (3, 4, 5)^;
+
+-- Finished appointments are moved here by the lifecycle job so the hot table only holds
+-- live and recent rows. Same columns as appointments plus the time of the move; no
+-- overlap constraint or sequence, ids are kept from the hot table.
+CREATE TABLE IF NOT EXISTS appointments_archive (
+    id                    bigint       PRIMARY KEY,
+    therapist_keycloak_id varchar(255) NOT NULL,
+    patient_keycloak_id   varchar(255),
+    start_time            timestamp(6) NOT NULL,
+    end_time              timestamp(6) NOT NULL,
+    status                smallint     NOT NULL,
+    notes                 varchar(1000),
+    created_at            timestamp(6) NOT NULL,
+    updated_at            timestamp(6) NOT NULL,
+    version               bigint       NOT NULL DEFAULT 0,
+    archived_at           timestamp(6) NOT NULL
+)^;
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_patient_start
+    ON appointments_archive (patient_keycloak_id, start_time)^;
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_therapist_start
+    ON appointments_archive (therapist_keycloak_id, start_time)^;
+CREATE INDEX IF NOT EXISTS idx_appointments_archive_patient_updated
+    ON appointments_archive (patient_keycloak_id, updated_at)^;
+
+-- A therapist's non-cancelled slots must not overlap. Enforced by Postgres so concurrent
+-- creates cannot both win; the service maps the violation to 409 Conflict.
+-- start_time/end_time are timestamps without time zone, hence tsrange.
+CREATE EXTENSION IF NOT EXISTS btree_gist^;
+-- A partitioned table cannot carry it; each partition has its own copy instead (see below).
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'appointments_no_overlap')
+            AND NOT EXISTS (SELECT 1 FROM pg_partitioned_table
+                            WHERE partrelid = 'appointments'::regclass) THEN
+        ALTER TABLE appointments ADD CONSTRAINT appointments_no_overlap
+            EXCLUDE USING gist (therapist_keycloak_id WITH =, tsrange(start_time, end_time) WITH &&)
+            WHERE (status <> 3);
+    END IF;
+END
+$$^;
+
+-- Opt-in monthly range partitioning on start_time (scheduling.partitioning.enabled).
+-- The functions are only defined here; AppointmentPartitionMaintenance calls them.
+
+-- Create the partition for the month starting at month_start unless it exists, with its own
+-- overlap constraint. Rows that already landed in the default partition for that month are
+-- moved into it first, since a new partition may not cover rows the default one still holds.
+-- A slot crossing midnight at the start of a month is only checked within its own partition.
+CREATE OR REPLACE FUNCTION appointments_create_month_partition(month_start date)
+RETURNS boolean LANGUAGE plpgsql AS $$
+DECLARE
+    month_end date := (month_start + interval '1 month')::date;
+    partition_name text := 'appointments_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    IF to_regclass('appointments_default') IS NOT NULL AND EXISTS (
+            SELECT 1 FROM appointments_default WHERE start_time >= month_start AND start_time < month_end) THEN
+        EXECUTE format('CREATE TABLE %I (LIKE appointments INCLUDING DEFAULTS)', partition_name);
+        EXECUTE format('WITH moved AS (DELETE FROM appointments_default '
+                       || 'WHERE start_time >= %L AND start_time < %L RETURNING *) '
+                       || 'INSERT INTO %I SELECT * FROM moved', month_start, month_end, partition_name);
+        EXECUTE format('ALTER TABLE appointments ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, month_start, month_end);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF appointments FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, month_start, month_end);
+    END IF;
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist '
+                   || '(therapist_keycloak_id WITH =, tsrange(start_time, end_time) WITH &&) '
+                   || 'WHERE (status <> 3)', partition_name, partition_name || '_no_overlap');
+    RETURN true;
+END
+$$^;
+
+CREATE OR REPLACE FUNCTION appointments_ensure_partitions(months_ahead integer)
+RETURNS integer LANGUAGE plpgsql AS $$
+DECLARE
+    created integer := 0;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'appointments'::regclass) THEN
+        RETURN 0;
+    END IF;
+    FOR i IN 0..months_ahead LOOP
+        IF appointments_create_month_partition(
+                (date_trunc('month', now()) + make_interval(months => i))::date) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END
+$$^;
+
+-- One-off conversion of the plain table: copy every row into a partitioned table of the
+-- same shape, then rebuild the indexes on it. The primary key must include the partition
+-- key; ids stay unique because they all come from appointments_seq.
+CREATE OR REPLACE FUNCTION appointments_partition_by_month(months_ahead integer)
+RETURNS boolean LANGUAGE plpgsql AS $$
+DECLARE
+    month_start date;
+BEGIN
+    -- Several instances may start at once; only the first converts
+    PERFORM pg_advisory_xact_lock(hashtext('appointments_partition_by_month'));
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'appointments'::regclass) THEN
+        RETURN false;
+    END IF;
+
+    LOCK TABLE appointments IN ACCESS EXCLUSIVE MODE;
+    ALTER TABLE appointments RENAME TO appointments_unpartitioned;
+    CREATE TABLE appointments (LIKE appointments_unpartitioned INCLUDING DEFAULTS)
+        PARTITION BY RANGE (start_time);
+    CREATE TABLE appointments_default PARTITION OF appointments DEFAULT;
+    ALTER TABLE appointments_default ADD CONSTRAINT appointments_default_no_overlap
+        EXCLUDE USING gist (therapist_keycloak_id WITH =, tsrange(start_time, end_time) WITH &&)
+        WHERE (status <> 3);
+
+    month_start := date_trunc('month', COALESCE(
+            (SELECT min(start_time) FROM appointments_unpartitioned), now()))::date;
+    WHILE month_start <= date_trunc('month', now() + make_interval(months => months_ahead)) LOOP
+        PERFORM appointments_create_month_partition(month_start);
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+
+    INSERT INTO appointments SELECT * FROM appointments_unpartitioned;
+    DROP TABLE appointments_unpartitioned;
+
+    ALTER TABLE appointments ADD PRIMARY KEY (id, start_time);
+    CREATE INDEX idx_appointments_therapist_start ON appointments (therapist_keycloak_id, start_time);
+    CREATE INDEX idx_appointments_patient_start ON appointments (patient_keycloak_id, start_time);
+    CREATE INDEX idx_appointments_patient_updated ON appointments (patient_keycloak_id, updated_at);
+    CREATE INDEX idx_appointments_therapist_updated ON appointments (therapist_keycloak_id, updated_at);
+    CREATE INDEX idx_appointments_available
+        ON appointments (therapist_keycloak_id, start_time, id) WHERE status = 1;
+    CREATE INDEX idx_appointments_available_start ON appointments (start_time, id) WHERE status = 1;
+    CREATE INDEX idx_appointments_booked
+        ON appointments (therapist_keycloak_id, start_time, id)
+        WHERE status = 2 AND patient_keycloak_id IS NOT NULL;
+    CREATE INDEX idx_appointments_live_end ON appointments (end_time) WHERE status IN (1, 2);
+    CREATE INDEX idx_appointments_finished_end ON appointments (end_time) WHERE status IN (3, 4, 5);
+    RETURN true;
+END
+$$^;
@@ -0,0 +1,134 @@
+package org.example.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.RabbitMQConfig;
+import org.example.persistance.OutboxEventRepository;
+import org.example.persistance.entity.OutboxEventEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class AppointmentEventRelayTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private RabbitTemplate rabbitTemplate;
+    private RabbitOperations operations;
+    private SimpleMeterRegistry meterRegistry;
+    private AppointmentEventRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        operations = mock(RabbitOperations.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(rabbitTemplate.invoke(any()))
+                .thenAnswer(inv -> ((RabbitOperations.OperationsCallback<?>) inv.getArgument(0)).doInRabbit(operations));
+
+        when(outboxEventRepository.tryLockRelay()).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+
+        relay = new AppointmentEventRelay(outboxEventRepository, rabbitTemplate, transactionTemplate,
+                meterRegistry, 2, Duration.ofSeconds(1), Duration.ofSeconds(60));
+    }
+
+    private OutboxEventEntity event(long id, String type) {
+        return OutboxEventEntity.builder()
+                .id(id)
+                .eventType(type)
+                .aggregateId(10L + id)
+                .payload("{\"appointmentId\":" + (10L + id) + "}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Full batches are drained, each confirmed before deleting
+    // --------------------------------------------------------
+    @Test
+    void relay_ShouldPublishConfirmAndDeleteUntilDrained() {
+        List<OutboxEventEntity> first = List.of(
+                event(1, AppointmentEventOutbox.APPOINTMENT_CREATED),
+                event(2, AppointmentEventOutbox.APPOINTMENT_BOOKED));
+        List<OutboxEventEntity> second = List.of(event(3, AppointmentEventOutbox.APPOINTMENT_CANCELLED));
+        when(outboxEventRepository.lockNextBatch(2)).thenReturn(first, second);
+
+        relay.relay();
+
+        verify(operations).send(eq(RabbitMQConfig.APPOINTMENT_EVENTS_EXCHANGE),
+                eq(AppointmentEventOutbox.APPOINTMENT_CREATED), any(Message.class));
+        verify(operations).send(eq(RabbitMQConfig.APPOINTMENT_EVENTS_EXCHANGE),
+                eq(AppointmentEventOutbox.APPOINTMENT_BOOKED), any(Message.class));
+        verify(operations).send(eq(RabbitMQConfig.APPOINTMENT_EVENTS_EXCHANGE),
+                eq(AppointmentEventOutbox.APPOINTMENT_CANCELLED), any(Message.class));
+        verify(operations, times(2)).waitForConfirmsOrDie(1000L);
+        verify(outboxEventRepository).deleteAllInBatch(first);
+        verify(outboxEventRepository).deleteAllInBatch(second);
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — Unconfirmed events stay in the outbox
+    // --------------------------------------------------------
+    @Test
+    void relay_ShouldKeepEvents_WhenBrokerDoesNotConfirm() {
+        when(outboxEventRepository.lockNextBatch(2))
+                .thenReturn(List.of(event(1, AppointmentEventOutbox.APPOINTMENT_BOOKED)));
+        doThrow(new AmqpTimeoutException("no confirm")).when(operations).waitForConfirmsOrDie(anyLong());
+
+        relay.relay();
+
+        verify(outboxEventRepository, never()).deleteAllInBatch(anyList());
+        assertThat(failures("broker")).isEqualTo(1);
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Database failures are counted and back off the next runs
+    // --------------------------------------------------------
+    @Test
+    void relay_ShouldCountAndBackOff_WhenDatabaseFails() {
+        when(outboxEventRepository.lockNextBatch(2))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        relay.relay();
+        relay.relay();
+
+        assertThat(failures("database")).isEqualTo(1);
+        // The second run falls inside the back-off and does not touch the database
+        verify(outboxEventRepository, times(1)).lockNextBatch(2);
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — Nothing is read while another replica holds the relay lock
+    // --------------------------------------------------------
+    @Test
+    void relay_ShouldSkip_WhenAnotherReplicaRelays() {
+        when(outboxEventRepository.tryLockRelay()).thenReturn(false);
+
+        relay.relay();
+
+        verify(outboxEventRepository, never()).lockNextBatch(anyInt());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private double failures(String cause) {
+        return meterRegistry.get(AppointmentEventRelay.FAILURES).tag("cause", cause).counter().count();
+    }
+}
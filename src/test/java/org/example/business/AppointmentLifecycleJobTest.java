@@ -0,0 +1,68 @@
+package org.example.business;
+
+import org.example.persistance.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.Mockito.*;
+
+class AppointmentLifecycleJobTest {
+
+    private AppointmentRepository appointmentRepository;
+    private AppointmentLifecycleJob job;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        job = new AppointmentLifecycleJob(appointmentRepository, 2, 3, Duration.ofDays(180));
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Each step repeats until a batch comes back short
+    // --------------------------------------------------------
+    @Test
+    void run_ShouldRepeatEachStepUntilBatchIsShort() {
+        when(appointmentRepository.completeEnded(any(), eq(2))).thenReturn(2, 1);
+        when(appointmentRepository.expireEnded(any(), eq(2))).thenReturn(0);
+        when(appointmentRepository.archiveEnded(any(), eq(2), any())).thenReturn(2, 2, 0);
+
+        job.run();
+
+        verify(appointmentRepository, times(2)).completeEnded(any(), eq(2));
+        verify(appointmentRepository, times(1)).expireEnded(any(), eq(2));
+        verify(appointmentRepository, times(3)).archiveEnded(any(), eq(2), any());
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — A backlog is worked off over several runs, archive threshold is applied
+    // --------------------------------------------------------
+    @Test
+    void run_ShouldStopAtMaxBatches_AndArchiveOnlyOldRows() {
+        when(appointmentRepository.archiveEnded(any(), anyInt(), any())).thenReturn(2);
+
+        job.run();
+
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(appointmentRepository, times(3)).archiveEnded(before.capture(), eq(2), now.capture());
+        assertThat(before.getValue()).isEqualTo(now.getValue().minusDays(180));
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — A database failure is logged and left for the next run
+    // --------------------------------------------------------
+    @Test
+    void run_ShouldNotThrow_WhenDatabaseFails() {
+        when(appointmentRepository.completeEnded(any(), anyInt())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThatCode(() -> job.run()).doesNotThrowAnyException();
+        verify(appointmentRepository, never()).archiveEnded(any(), anyInt(), any());
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.business;
+
+import org.example.persistance.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.mockito.Mockito.*;
+
+class AppointmentPartitionMaintenanceTest {
+
+    private AppointmentRepository appointmentRepository;
+    private AppointmentPartitionMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        maintenance = new AppointmentPartitionMaintenance(appointmentRepository, 3);
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Startup converts the table before topping up partitions
+    // --------------------------------------------------------
+    @Test
+    void partitionOnStartup_ShouldConvertThenEnsurePartitions() {
+        when(appointmentRepository.partitionByMonth(3)).thenReturn(true);
+
+        maintenance.partitionOnStartup();
+
+        InOrder inOrder = inOrder(appointmentRepository);
+        inOrder.verify(appointmentRepository).partitionByMonth(3);
+        inOrder.verify(appointmentRepository).ensurePartitions(3);
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — The daily run only creates upcoming partitions
+    // --------------------------------------------------------
+    @Test
+    void createUpcomingPartitions_ShouldNotConvertAgain() {
+        when(appointmentRepository.ensurePartitions(3)).thenReturn(1);
+
+        maintenance.createUpcomingPartitions();
+
+        verify(appointmentRepository).ensurePartitions(3);
+        verify(appointmentRepository, never()).partitionByMonth(anyInt());
+    }
+}
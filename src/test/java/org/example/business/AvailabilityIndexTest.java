@@ -0,0 +1,194 @@
+package org.example.business;
+
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityIndexTest {
+
+    private AvailabilityIndex availabilityIndex;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        availabilityIndex = new AvailabilityIndex(true, Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+    }
+
+    private Appointment slot(Long id, AppointmentStatus status, LocalDateTime start) {
+        return slot("therapist123", id, status, start);
+    }
+
+    private Appointment slot(String therapistKeycloakId, Long id, AppointmentStatus status, LocalDateTime start) {
+        return Appointment.builder()
+                .id(id)
+                .therapistKeycloakId(therapistKeycloakId)
+                .status(status)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .build();
+    }
+
+    private Function<String, List<Appointment>> loader(Appointment... appointments) {
+        return id -> {
+            loads.incrementAndGet();
+            return List.of(appointments);
+        };
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Loads once and returns slots ordered by start time
+    // --------------------------------------------------------
+    @Test
+    void getAvailable_ShouldLoadOnceAndSortByStartTime() {
+        LocalDateTime now = LocalDateTime.now();
+        Appointment later = slot(1L, AppointmentStatus.AVAILABLE, now.plusDays(2));
+        Appointment sooner = slot(2L, AppointmentStatus.AVAILABLE, now.plusDays(1));
+
+        List<Appointment> first = availabilityIndex.getAvailable("therapist123", loader(later, sooner));
+        List<Appointment> second = availabilityIndex.getAvailable("therapist123", loader());
+
+        assertThat(first).containsExactly(sooner, later);
+        assertThat(second).containsExactly(sooner, later);
+        assertThat(loads).hasValue(1);
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — Add and remove keep an indexed therapist in sync
+    // --------------------------------------------------------
+    @Test
+    void addAndRemove_ShouldUpdateIndexedTherapist() {
+        LocalDateTime now = LocalDateTime.now();
+        Appointment existing = slot(1L, AppointmentStatus.AVAILABLE, now.plusDays(1));
+        availabilityIndex.getAvailable("therapist123", loader(existing));
+
+        Appointment created = slot(2L, AppointmentStatus.AVAILABLE, now.plusHours(3));
+        availabilityIndex.add(created);
+        availabilityIndex.add(slot(3L, AppointmentStatus.BOOKED, now.plusHours(5)));
+        availabilityIndex.remove("therapist123", existing.getStartTime(), 1L);
+
+        assertThat(availabilityIndex.getAvailable("therapist123", loader()))
+                .containsExactly(created);
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Changes for a therapist that is not indexed are ignored
+    // --------------------------------------------------------
+    @Test
+    void add_ShouldBeIgnored_WhenTherapistNotIndexed() {
+        Appointment fromDb = slot(1L, AppointmentStatus.AVAILABLE, LocalDateTime.now().plusDays(1));
+
+        availabilityIndex.add(slot(2L, AppointmentStatus.AVAILABLE, LocalDateTime.now().plusDays(2)));
+
+        assertThat(availabilityIndex.getAvailable("therapist123", loader(fromDb)))
+                .containsExactly(fromDb);
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — Past slots are dropped, eviction forces a reload
+    // --------------------------------------------------------
+    @Test
+    void getAvailable_ShouldDropPastSlotsAndReloadAfterEvict() {
+        Appointment past = slot(1L, AppointmentStatus.AVAILABLE, LocalDateTime.now().minusHours(1));
+        Appointment future = slot(2L, AppointmentStatus.AVAILABLE, LocalDateTime.now().plusHours(1));
+
+        assertThat(availabilityIndex.getAvailable("therapist123", loader(past, future)))
+                .containsExactly(future);
+
+        availabilityIndex.evict("therapist123");
+
+        assertThat(availabilityIndex.getAvailable("therapist123", loader())).isEmpty();
+        assertThat(loads).hasValue(2);
+    }
+
+    // --------------------------------------------------------
+    // TEST 5 — Expired entries are reloaded
+    // --------------------------------------------------------
+    @Test
+    void getAvailable_ShouldReload_WhenEntryExpired() {
+        AvailabilityIndex expiringIndex = new AvailabilityIndex(true, Duration.ZERO);
+
+        expiringIndex.getAvailable("therapist123", loader());
+        expiringIndex.getAvailable("therapist123", loader());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    // --------------------------------------------------------
+    // TEST 6 — A slow load blocks neither other therapists nor changes to its own
+    // --------------------------------------------------------
+    @Test
+    void getAvailable_ShouldLoadOutsideMapLock() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Appointment slotA = slot("therapistA", 1L, AppointmentStatus.AVAILABLE, now.plusDays(1));
+        Appointment slotB = slot("therapistB", 2L, AppointmentStatus.AVAILABLE, now.plusDays(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Appointment>> slowLoad = executor.submit(() ->
+                    availabilityIndex.getAvailable("therapistA", id -> {
+                        loading.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return List.of(slotA);
+                    }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // While A's query runs, B loads and A's slots change
+            Future<List<Appointment>> otherLoad = executor.submit(() ->
+                    availabilityIndex.getAvailable("therapistB", loader(slotB)));
+            assertThat(otherLoad.get(5, TimeUnit.SECONDS)).containsExactly(slotB);
+            availabilityIndex.add(slot("therapistA", 3L, AppointmentStatus.AVAILABLE, now.plusDays(2)));
+
+            release.countDown();
+            assertThat(slowLoad.get(5, TimeUnit.SECONDS)).containsExactly(slotA);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // A's result may have missed the change, so it was not kept: the next read loads again
+        availabilityIndex.getAvailable("therapistA", loader(slotA));
+        assertThat(loads).hasValue(2);
+    }
+
+    // --------------------------------------------------------
+    // TEST 7 — Created slots only become visible once the transaction commits
+    // --------------------------------------------------------
+    @Test
+    void addAfterCommit_ShouldWaitForCommit() {
+        Appointment created = slot(1L, AppointmentStatus.AVAILABLE, LocalDateTime.now().plusDays(1));
+        availabilityIndex.getAvailable("therapist123", loader());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            availabilityIndex.addAfterCommit(List.of(created));
+            assertThat(availabilityIndex.getAvailable("therapist123", loader())).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(availabilityIndex.getAvailable("therapist123", loader())).containsExactly(created);
+    }
+}
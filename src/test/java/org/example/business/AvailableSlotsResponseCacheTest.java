@@ -0,0 +1,118 @@
+package org.example.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailableSlotsResponseCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AvailableSlotsResponseCache cache;
+    private AtomicInteger builds;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AvailableSlotsResponseCache(meterRegistry, DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+        builds = new AtomicInteger();
+    }
+
+    private Function<String, byte[]> body(String json) {
+        return id -> {
+            builds.incrementAndGet();
+            return json.getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Body is built once and served with a stable ETag
+    // --------------------------------------------------------
+    @Test
+    void get_ShouldBuildOnceAndReuse() {
+        AvailableSlotsResponseCache.CachedResponse first = cache.get("therapist123", body("[]"));
+        AvailableSlotsResponseCache.CachedResponse second = cache.get("therapist123", body("[1]"));
+
+        assertThat(second.body()).isEqualTo("[]".getBytes(StandardCharsets.UTF_8));
+        assertThat(second.eTag()).isEqualTo(first.eTag());
+        assertThat(builds).hasValue(1);
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — Invalidation rebuilds only the affected therapist
+    // --------------------------------------------------------
+    @Test
+    void invalidate_ShouldRebuildOnlyThatTherapist() {
+        AvailableSlotsResponseCache.CachedResponse before = cache.get("therapist123", body("[]"));
+        cache.get("therapist456", body("[]"));
+
+        cache.invalidate("therapist123");
+
+        AvailableSlotsResponseCache.CachedResponse after = cache.get("therapist123", body("[1]"));
+        cache.get("therapist456", body("[1]"));
+
+        assertThat(after.eTag()).isNotEqualTo(before.eTag());
+        assertThat(builds).hasValue(3);
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Concurrent misses for one therapist build the body once
+    // --------------------------------------------------------
+    @Test
+    void get_ShouldBuildOnce_WhenRequestsArriveTogether() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, byte[]> slowBody = id -> {
+            builds.incrementAndGet();
+            building.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "[]".getBytes(StandardCharsets.UTF_8);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<AvailableSlotsResponseCache.CachedResponse> first =
+                    executor.submit(() -> cache.get("therapist123", slowBody));
+            building.await(5, TimeUnit.SECONDS);
+            Future<AvailableSlotsResponseCache.CachedResponse> second =
+                    executor.submit(() -> cache.get("therapist123", slowBody));
+            release.countDown();
+
+            assertThat(second.get(5, TimeUnit.SECONDS).eTag()).isEqualTo(first.get(5, TimeUnit.SECONDS).eTag());
+            assertThat(builds).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — Lookups are timed and tagged as hits or misses
+    // --------------------------------------------------------
+    @Test
+    void get_ShouldTimeHitsAndMisses() {
+        cache.get("therapist123", body("[]"));
+        cache.get("therapist123", body("[]"));
+        cache.get("therapist123", body("[]"));
+
+        assertThat(meterRegistry.get(AvailableSlotsResponseCache.TIMER).tag("cache", "miss").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(AvailableSlotsResponseCache.TIMER).tag("cache", "hit").timer().count())
+                .isEqualTo(2);
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.business;
+
+import org.example.config.RabbitMQConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class DeletionEventRetryTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private RabbitOperations operations;
+    private DeletionEventRetry deletionEventRetry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        operations = mock(RabbitOperations.class);
+        when(rabbitTemplate.invoke(any()))
+                .thenAnswer(inv -> ((RabbitOperations.OperationsCallback<?>) inv.getArgument(0)).doInRabbit(operations));
+        deletionEventRetry = new DeletionEventRetry(rabbitTemplate, Duration.ofSeconds(1));
+    }
+
+    private Message message(Integer retries) {
+        MessageBuilder builder = MessageBuilder.withBody("{}".getBytes()).setMessageId("m1");
+        if (retries != null) {
+            builder.setHeader(RabbitMQConfig.RETRY_COUNT_HEADER, retries);
+        }
+        return builder.build();
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Each retry waits in the queue for the next, longer delay
+    // --------------------------------------------------------
+    @Test
+    void retry_ShouldUseNextDelayQueue() {
+        Message first = message(null);
+        Message second = message(1);
+
+        deletionEventRetry.retry(first, new RuntimeException("db down"));
+        deletionEventRetry.retry(second, new RuntimeException("db down"));
+
+        verify(operations).send("", RabbitMQConfig.schedulingDeletionRetryQueue(Duration.ofSeconds(5)), first);
+        verify(operations).send("", RabbitMQConfig.schedulingDeletionRetryQueue(Duration.ofSeconds(30)), second);
+        assertThat((Integer) first.getMessageProperties().getHeader(RabbitMQConfig.RETRY_COUNT_HEADER)).isEqualTo(1);
+        assertThat((Integer) second.getMessageProperties().getHeader(RabbitMQConfig.RETRY_COUNT_HEADER)).isEqualTo(2);
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — Messages are parked once every delay has been used
+    // --------------------------------------------------------
+    @Test
+    void retry_ShouldPark_WhenRetriesExhausted() {
+        Message exhausted = message(RabbitMQConfig.SCHEDULING_DELETION_RETRY_DELAYS.size());
+
+        deletionEventRetry.retry(exhausted, new RuntimeException("db down"));
+
+        verify(operations).send("", RabbitMQConfig.SCHEDULING_DELETION_PARKING_LOT_QUEUE, exhausted);
+        assertThat((String) exhausted.getMessageProperties().getHeader(RabbitMQConfig.PARKED_REASON_HEADER))
+                .isEqualTo("Failed after 4 retries: db down");
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Without a broker confirm the original is requeued, not acknowledged
+    // --------------------------------------------------------
+    @Test
+    void retry_ShouldRequeueOriginal_WhenPublishIsNotConfirmed() {
+        Message message = message(null);
+        doThrow(new AmqpTimeoutException("no confirm")).when(operations).waitForConfirmsOrDie(anyLong());
+
+        assertThatThrownBy(() -> deletionEventRetry.retry(message, new RuntimeException("db down")))
+                .isInstanceOf(ImmediateRequeueAmqpException.class);
+
+        verify(operations).waitForConfirmsOrDie(1000L);
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.business;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.business.dto.AccountDeletionEvent;
+import org.example.persistance.AppointmentArchiveRepository;
+import org.example.persistance.AppointmentRepository;
+import org.example.persistance.ProcessedDeletionEventRepository;
+import org.example.persistance.entity.ProcessedDeletionEventEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SchedulingDeletionConsumerTest {
+
+    private AppointmentRepository appointmentRepository;
+    private AppointmentArchiveRepository appointmentArchiveRepository;
+    private ProcessedDeletionEventRepository processedDeletionEventRepository;
+    private AvailabilityIndex availabilityIndex;
+    private AvailableSlotsResponseCache availableSlotsResponseCache;
+    private DeletionEventRetry deletionEventRetry;
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+    private SchedulingDeletionConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        appointmentArchiveRepository = mock(AppointmentArchiveRepository.class);
+        processedDeletionEventRepository = mock(ProcessedDeletionEventRepository.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        availableSlotsResponseCache = mock(AvailableSlotsResponseCache.class);
+        deletionEventRetry = mock(DeletionEventRetry.class);
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new SchedulingDeletionConsumer(appointmentRepository, appointmentArchiveRepository,
+                processedDeletionEventRepository, availabilityIndex, availableSlotsResponseCache, deletionEventRetry,
+                objectMapper, meterRegistry, 2);
+    }
+
+    private Message message(String messageId, String userKeycloakId) throws Exception {
+        AccountDeletionEvent event = new AccountDeletionEvent(
+                userKeycloakId, LocalDateTime.of(2030, 1, 1, 12, 0), "User request");
+        return MessageBuilder.withBody(objectMapper.writeValueAsBytes(event))
+                .setMessageId(messageId)
+                .build();
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Users of a batch are deleted together, in chunks
+    // --------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleAccountDeletions_ShouldDeleteUsersTogetherInChunks() throws Exception {
+        when(processedDeletionEventRepository.findProcessedIds(anyCollection())).thenReturn(Set.of());
+        when(appointmentRepository.deleteChunkForUsers(anyCollection(), eq(2), any())).thenReturn(2, 2, 1);
+        when(appointmentArchiveRepository.deleteChunkForUsers(anyCollection(), eq(2), any())).thenReturn(2, 0);
+
+        consumer.handleAccountDeletions(List.of(message("m1", "user1"), message("m2", "user2")));
+
+        ArgumentCaptor<Collection<String>> users = ArgumentCaptor.forClass(Collection.class);
+        verify(appointmentRepository, times(3)).deleteChunkForUsers(users.capture(), eq(2), any());
+        assertThat(users.getValue()).containsExactly("user1", "user2");
+        // Archived history goes too, in its own chunks
+        verify(appointmentArchiveRepository, times(2)).deleteChunkForUsers(users.capture(), eq(2), any());
+        assertThat(users.getValue()).containsExactly("user1", "user2");
+
+        ArgumentCaptor<List<ProcessedDeletionEventEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(processedDeletionEventRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(ProcessedDeletionEventEntity::getId)
+                .containsExactly("m1", "m2");
+
+        verify(availabilityIndex).evict("user1");
+        verify(availabilityIndex).evict("user2");
+        verify(availableSlotsResponseCache).invalidate("user1");
+        verify(availableSlotsResponseCache).invalidate("user2");
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — Redelivered events are no-ops
+    // --------------------------------------------------------
+    @Test
+    void handleAccountDeletions_ShouldSkipProcessedEvents() throws Exception {
+        when(processedDeletionEventRepository.findProcessedIds(anyCollection())).thenReturn(Set.of("m1"));
+
+        consumer.handleAccountDeletions(List.of(message("m1", "user1")));
+
+        verifyNoInteractions(appointmentRepository, availabilityIndex);
+        verify(processedDeletionEventRepository, never()).saveAll(anyList());
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Unreadable messages are parked, duplicates collapse
+    // --------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleAccountDeletions_ShouldParkUnreadableAndCollapseDuplicates() throws Exception {
+        Message garbage = MessageBuilder.withBody("not json".getBytes(StandardCharsets.UTF_8)).build();
+        when(processedDeletionEventRepository.findProcessedIds(anyCollection())).thenReturn(Set.of());
+        when(appointmentRepository.deleteChunkForUsers(anyCollection(), anyInt(), any())).thenReturn(0);
+
+        consumer.handleAccountDeletions(List.of(message("m1", "user1"), garbage, message("m1", "user1")));
+
+        ArgumentCaptor<List<ProcessedDeletionEventEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(processedDeletionEventRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).hasSize(1);
+        verify(appointmentRepository, times(1)).deleteChunkForUsers(anyCollection(), eq(2), any());
+        verify(deletionEventRetry).park(eq(garbage), anyString());
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — A failing batch is handed to the delayed retries instead of being dropped
+    // --------------------------------------------------------
+    @Test
+    void handleAccountDeletions_ShouldRetryEachMessage_WhenDeleteFails() throws Exception {
+        Message first = message("m1", "user1");
+        Message second = message("m2", "user2");
+        RuntimeException failure = new RuntimeException("connection refused");
+        when(processedDeletionEventRepository.findProcessedIds(anyCollection())).thenReturn(Set.of());
+        when(appointmentRepository.deleteChunkForUsers(anyCollection(), anyInt(), any())).thenThrow(failure);
+
+        consumer.handleAccountDeletions(List.of(first, second));
+
+        verify(deletionEventRetry).retry(first, failure);
+        verify(deletionEventRetry).retry(second, failure);
+        verify(processedDeletionEventRepository, never()).saveAll(anyList());
+        verifyNoInteractions(availabilityIndex);
+        assertThat(meterRegistry.get(SchedulingDeletionConsumer.BATCH_TIMER).tag("outcome", "retried").timer().count())
+                .isEqualTo(1);
+    }
+
+    // --------------------------------------------------------
+    // TEST 5 — Batch processing time and per-event lag are recorded
+    // --------------------------------------------------------
+    @Test
+    void handleAccountDeletions_ShouldRecordBatchTimeAndLag() throws Exception {
+        when(processedDeletionEventRepository.findProcessedIds(anyCollection())).thenReturn(Set.of());
+        when(appointmentRepository.deleteChunkForUsers(anyCollection(), anyInt(), any())).thenReturn(0);
+
+        // Events are dated 2030, so only the stamped message yields a (non-negative) lag
+        Message stamped = message("m1", "user1");
+        stamped.getMessageProperties().setTimestamp(new Date(System.currentTimeMillis() - 2000));
+
+        consumer.handleAccountDeletions(List.of(stamped, message("m2", "user2")));
+
+        assertThat(meterRegistry.get(SchedulingDeletionConsumer.BATCH_TIMER).tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+        Timer lag = meterRegistry.get(SchedulingDeletionConsumer.LAG_TIMER).timer();
+        assertThat(lag.count()).isEqualTo(1);
+        assertThat(lag.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(2000);
+    }
+
+    // --------------------------------------------------------
+    // TEST 6 — Events without message id or timestamp are applied but not recorded
+    // --------------------------------------------------------
+    @Test
+    void handleAccountDeletions_ShouldNotRecordEventsWithoutIdentity() throws Exception {
+        AccountDeletionEvent event = new AccountDeletionEvent("user1", null, "User request");
+        Message anonymous = MessageBuilder.withBody(objectMapper.writeValueAsBytes(event)).build();
+        when(appointmentRepository.deleteChunkForUsers(anyCollection(), anyInt(), any())).thenReturn(0);
+
+        consumer.handleAccountDeletions(List.of(anonymous));
+
+        verify(appointmentRepository).deleteChunkForUsers(eq(Set.of("user1")), eq(2), any());
+        verify(availabilityIndex).evict("user1");
+        // Otherwise a later deletion of the same user would be skipped as a duplicate
+        verifyNoInteractions(processedDeletionEventRepository);
+    }
+}
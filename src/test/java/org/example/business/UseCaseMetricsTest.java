@@ -0,0 +1,104 @@
+package org.example.business;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.business.exception.AppointmentConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class UseCaseMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UseCaseMetrics useCaseMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        useCaseMetrics = new UseCaseMetrics(meterRegistry);
+    }
+
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(useCaseMetrics);
+        return factory.getProxy();
+    }
+
+    private long count(String useCase, String method, String outcome) {
+        return meterRegistry.get(UseCaseMetrics.TIMER)
+                .tag("use_case", useCase)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Calls are timed under the use case interface name
+    // --------------------------------------------------------
+    @Test
+    void time_ShouldTagSuccessfulCallsWithUseCase() {
+        GetAvailableSlots target = mock(GetAvailableSlots.class);
+        when(target.getAvailable("therapistABC")).thenReturn(List.of());
+
+        proxy(target).getAvailable("therapistABC");
+
+        assertThat(count("GetAvailableSlots", "getAvailable", "success")).isEqualTo(1);
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — Booking conflicts are counted and tagged as conflicts
+    // --------------------------------------------------------
+    @Test
+    void time_ShouldCountBookingConflicts() {
+        BookAppointment target = mock(BookAppointment.class);
+        when(target.book(1L, "patient123", null))
+                .thenThrow(new AppointmentConflictException("Appointment slot is not available"));
+
+        BookAppointment bookAppointment = proxy(target);
+        assertThatThrownBy(() -> bookAppointment.book(1L, "patient123", null))
+                .isInstanceOf(AppointmentConflictException.class);
+
+        assertThat(count("BookAppointment", "book", "conflict")).isEqualTo(1);
+        assertThat(meterRegistry.get(UseCaseMetrics.BOOKING_CONFLICTS).counter().count()).isEqualTo(1);
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Other failures are errors and not booking conflicts
+    // --------------------------------------------------------
+    @Test
+    void time_ShouldTagErrors() {
+        CancelAppointment target = mock(CancelAppointment.class);
+        doThrow(new RuntimeException("Appointment not found")).when(target).cancel(1L, "patient123", null);
+
+        CancelAppointment cancelAppointment = proxy(target);
+        assertThatThrownBy(() -> cancelAppointment.cancel(1L, "patient123", null))
+                .hasMessage("Appointment not found");
+
+        assertThat(count("CancelAppointment", "cancel", "error")).isEqualTo(1);
+        assertThat(meterRegistry.get(UseCaseMetrics.BOOKING_CONFLICTS).counter().count()).isZero();
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — Bulk creation, export and delta sync are timed too
+    // --------------------------------------------------------
+    @Test
+    void time_ShouldCoverEveryUseCase() {
+        BulkCreateAppointments bulkCreate = mock(BulkCreateAppointments.class);
+        ExportUserAppointments export = mock(ExportUserAppointments.class);
+        GetUserAppointmentChanges changes = mock(GetUserAppointmentChanges.class);
+
+        proxy(bulkCreate).createAll("therapist123", List.of());
+        proxy(export).export("user123", appointment -> { });
+        proxy(changes).getLastModified("user123");
+
+        assertThat(count("BulkCreateAppointments", "createAll", "success")).isEqualTo(1);
+        assertThat(count("ExportUserAppointments", "export", "success")).isEqualTo(1);
+        assertThat(count("GetUserAppointmentChanges", "getLastModified", "success")).isEqualTo(1);
+    }
+}
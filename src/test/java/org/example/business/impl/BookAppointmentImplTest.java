@@ -1,11 +1,20 @@
 package org.example.business.impl;
 
+import org.example.business.AppointmentEventOutbox;
+import org.example.business.AvailabilityIndex;
+import org.example.business.AvailableSlotsResponseCache;
+import org.example.business.ConflictRetry;
+import org.example.business.exception.AppointmentConflictException;
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
 import org.example.persistance.AppointmentRepository;
 import org.example.persistance.entity.AppointmentEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -16,17 +25,41 @@ import static org.mockito.Mockito.*;
 class BookAppointmentImplTest {
 
     private AppointmentRepository appointmentRepository;
+    private AvailabilityIndex availabilityIndex;
+    private AvailableSlotsResponseCache availableSlotsResponseCache;
+    private AppointmentEventOutbox appointmentEventOutbox;
     private BookAppointmentImpl bookAppointment;
 
     @BeforeEach
     void setUp() {
         appointmentRepository = mock(AppointmentRepository.class);
-        bookAppointment = new BookAppointmentImpl(appointmentRepository);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        availableSlotsResponseCache = mock(AvailableSlotsResponseCache.class);
+        appointmentEventOutbox = mock(AppointmentEventOutbox.class);
+        bookAppointment = new BookAppointmentImpl(appointmentRepository, availabilityIndex, availableSlotsResponseCache,
+                new ConflictRetry(3, Duration.ZERO, mock(PlatformTransactionManager.class)),
+                appointmentEventOutbox);
+    }
+
+    private AppointmentEntity bookedEntity(String notes) {
+        return AppointmentEntity.builder()
+                .id(1L)
+                .therapistKeycloakId("therapistABC")
+                .patientKeycloakId("patient123")
+                .status(AppointmentStatus.BOOKED)
+                .notes(notes)
+                .startTime(LocalDateTime.now())
+                .endTime(LocalDateTime.now().plusHours(1))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
     }
 
     @Test
     void book_ShouldThrowException_WhenAppointmentNotFound() {
 
+        when(appointmentRepository.bookIfAvailable(eq(100L), eq("patient123"), eq("Some notes"), isNull(), any()))
+                .thenReturn(Optional.empty());
         when(appointmentRepository.findById(100L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() ->
@@ -34,81 +67,113 @@ class BookAppointmentImplTest {
         ).isInstanceOf(RuntimeException.class)
                 .hasMessage("Appointment not found");
 
+        verify(appointmentRepository).bookIfAvailable(eq(100L), eq("patient123"), eq("Some notes"), isNull(), any());
         verify(appointmentRepository).findById(100L);
         verifyNoMoreInteractions(appointmentRepository);
+        verifyNoInteractions(availabilityIndex, appointmentEventOutbox);
     }
 
     @Test
-    void book_ShouldThrowException_WhenSlotIsNotAvailable() {
-
-        AppointmentEntity entity = AppointmentEntity.builder()
-                .id(1L)
-                .status("BOOKED")
-                .build();
+    void book_ShouldThrowConflict_WhenSlotIsNotAvailable() {
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(entity));
+        when(appointmentRepository.bookIfAvailable(eq(1L), eq("patient123"), eq("notes"), isNull(), any()))
+                .thenReturn(Optional.empty());
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(bookedEntity(null)));
 
         assertThatThrownBy(() ->
                 bookAppointment.book(1L, "patient123", "notes")
-        ).isInstanceOf(RuntimeException.class)
+        ).isInstanceOf(AppointmentConflictException.class)
                 .hasMessage("Appointment slot is not available");
 
         verify(appointmentRepository).findById(1L);
-        verifyNoMoreInteractions(appointmentRepository);
+        verifyNoInteractions(availabilityIndex);
     }
 
     @Test
-    void book_ShouldBookAppointment_WhenSlotAvailable_AndNoExistingNotes() {
+    void book_ShouldBookAppointment_WithSingleStatement() {
 
-        AppointmentEntity entity = AppointmentEntity.builder()
-                .id(1L)
-                .therapistKeycloakId("therapistABC")
-                .status("AVAILABLE")
-                .notes(null)
-                .startTime(LocalDateTime.now())
-                .endTime(LocalDateTime.now().plusHours(1))
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        AppointmentEntity booked = bookedEntity("Patient notes: My notes");
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(entity));
-        when(appointmentRepository.save(any(AppointmentEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(appointmentRepository.bookIfAvailable(eq(1L), eq("patient123"), eq("My notes"), isNull(), any()))
+                .thenReturn(Optional.of(booked));
 
         Appointment result = bookAppointment.book(1L, "patient123", "My notes");
 
-        verify(appointmentRepository).findById(1L);
-        verify(appointmentRepository).save(entity);
+        verify(appointmentRepository).bookIfAvailable(eq(1L), eq("patient123"), eq("My notes"), isNull(), any(LocalDateTime.class));
+        verifyNoMoreInteractions(appointmentRepository);
 
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getPatientKeycloakId()).isEqualTo("patient123");
-        assertThat(result.getStatus()).isEqualTo("BOOKED");
+        assertThat(result.getStatus()).isEqualTo(AppointmentStatus.BOOKED);
         assertThat(result.getNotes()).isEqualTo("Patient notes: My notes");
+
+        verify(availabilityIndex).remove("therapistABC", booked.getStartTime(), 1L);
+        verify(availableSlotsResponseCache).invalidate("therapistABC");
+        verify(appointmentEventOutbox).append(AppointmentEventOutbox.APPOINTMENT_BOOKED, result);
     }
 
     @Test
-    void book_ShouldAppendPatientNotes_WhenNotesAlreadyExist() {
+    void book_ShouldPassNullNotes_WhenPatientLeavesNone() {
 
-        AppointmentEntity entity = AppointmentEntity.builder()
-                .id(1L)
-                .therapistKeycloakId("therapistABC")
-                .status("AVAILABLE")
-                .notes("Existing therapist notes")
-                .startTime(LocalDateTime.now())
-                .endTime(LocalDateTime.now().plusHours(1))
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+        AppointmentEntity booked = bookedEntity("Existing therapist notes");
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(entity));
-        when(appointmentRepository.save(any(AppointmentEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(appointmentRepository.bookIfAvailable(eq(1L), eq("patient123"), isNull(), isNull(), any()))
+                .thenReturn(Optional.of(booked));
 
-        Appointment result = bookAppointment.book(1L, "patient123", "Patient additional notes");
+        Appointment result = bookAppointment.book(1L, "patient123", null);
 
-        verify(appointmentRepository).findById(1L);
-        verify(appointmentRepository).save(entity);
+        assertThat(result.getStatus()).isEqualTo(AppointmentStatus.BOOKED);
+        assertThat(result.getNotes()).isEqualTo("Existing therapist notes");
+    }
+
+    @Test
+    void book_ShouldThrowConflict_WhenVersionIsStale() {
+
+        AppointmentEntity current = bookedEntity(null);
+        current.setStatus(AppointmentStatus.AVAILABLE);
+        current.setVersion(4L);
+
+        when(appointmentRepository.bookIfAvailable(eq(1L), eq("patient123"), isNull(), eq(3L), any()))
+                .thenReturn(Optional.empty());
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        assertThatThrownBy(() ->
+                bookAppointment.book(1L, "patient123", null, 3L)
+        ).isInstanceOf(AppointmentConflictException.class)
+                .hasMessage("Appointment was modified by another request");
+    }
+
+    @Test
+    void book_ShouldThrowConflict_WhenSlotChangedAfterUpdate() {
+
+        // Still bookable when re-read, so another request moved it in between
+        AppointmentEntity current = bookedEntity(null);
+        current.setStatus(AppointmentStatus.AVAILABLE);
+        current.setPatientKeycloakId(null);
+
+        when(appointmentRepository.bookIfAvailable(eq(1L), eq("patient123"), isNull(), isNull(), any()))
+                .thenReturn(Optional.empty());
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        assertThatThrownBy(() ->
+                bookAppointment.book(1L, "patient123", null)
+        ).isInstanceOf(AppointmentConflictException.class)
+                .hasMessage("Appointment was modified by another request");
+    }
+
+    @Test
+    void book_ShouldRetry_WhenLockCannotBeAcquired() {
+
+        AppointmentEntity booked = bookedEntity(null);
+        booked.setVersion(1L);
+
+        when(appointmentRepository.bookIfAvailable(eq(1L), eq("patient123"), isNull(), isNull(), any()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"))
+                .thenReturn(Optional.of(booked));
+
+        Appointment result = bookAppointment.book(1L, "patient123", null);
 
-        assertThat(result.getStatus()).isEqualTo("BOOKED");
-        assertThat(result.getNotes())
-                .isEqualTo("Existing therapist notes | Patient notes: Patient additional notes");
+        assertThat(result.getVersion()).isEqualTo(1L);
+        verify(appointmentRepository, times(2)).bookIfAvailable(eq(1L), eq("patient123"), isNull(), isNull(), any());
     }
 }
@@ -0,0 +1,208 @@
+package org.example.business.impl;
+
+import org.example.business.AppointmentEventOutbox;
+import org.example.business.AvailabilityIndex;
+import org.example.business.AvailableSlotsResponseCache;
+import org.example.business.dto.CreateAppointmentRequest;
+import org.example.business.dto.RecurrenceRule;
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
+import org.example.persistance.AppointmentRepository;
+import org.example.persistance.entity.AppointmentEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class BulkCreateAppointmentsImplTest {
+
+    private AppointmentRepository appointmentRepository;
+    private AvailabilityIndex availabilityIndex;
+    private AvailableSlotsResponseCache availableSlotsResponseCache;
+    private AppointmentEventOutbox appointmentEventOutbox;
+    private BulkCreateAppointmentsImpl bulkCreateAppointments;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        availableSlotsResponseCache = mock(AvailableSlotsResponseCache.class);
+        appointmentEventOutbox = mock(AppointmentEventOutbox.class);
+        bulkCreateAppointments = new BulkCreateAppointmentsImpl(appointmentRepository, availabilityIndex,
+                availableSlotsResponseCache, appointmentEventOutbox);
+    }
+
+    private CreateAppointmentRequest slot(LocalDateTime start, int minutes) {
+        return CreateAppointmentRequest.builder()
+                .startTime(start)
+                .endTime(start.plusMinutes(minutes))
+                .notes("notes")
+                .build();
+    }
+
+    private AppointmentEntity existing(LocalDateTime start, int minutes) {
+        return AppointmentEntity.builder()
+                .id(99L)
+                .therapistKeycloakId("therapist123")
+                .status(AppointmentStatus.BOOKED)
+                .startTime(start)
+                .endTime(start.plusMinutes(minutes))
+                .build();
+    }
+
+    private RecurrenceRule weekdays(LocalDate startDate, int weeks) {
+        return RecurrenceRule.builder()
+                .startDate(startDate)
+                .weeks(weeks)
+                .daysOfWeek(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY))
+                .dayStart(LocalTime.of(9, 0))
+                .dayEnd(LocalTime.of(17, 0))
+                .slotMinutes(50)
+                .gapMinutes(10)
+                .build();
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Overlap inside the batch is rejected before any query
+    // --------------------------------------------------------
+    @Test
+    void createAll_ShouldThrow_WhenSlotsOverlapEachOther() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        assertThatThrownBy(() ->
+                bulkCreateAppointments.createAll("therapist123",
+                        List.of(slot(start, 60), slot(start.plusMinutes(30), 60)))
+        ).isInstanceOf(RuntimeException.class)
+                .hasMessage("Requested slots overlap each other");
+
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — One range query detects a conflict with an existing slot
+    // --------------------------------------------------------
+    @Test
+    void createAll_ShouldThrow_WhenSlotConflictsWithExisting() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<CreateAppointmentRequest> slots = List.of(slot(start.plusHours(2), 60), slot(start, 60));
+
+        when(appointmentRepository.findOverlapping("therapist123", start, start.plusHours(3)))
+                .thenReturn(List.of(existing(start.plusHours(2).plusMinutes(30), 60)));
+
+        assertThatThrownBy(() ->
+                bulkCreateAppointments.createAll("therapist123", slots)
+        ).isInstanceOf(RuntimeException.class)
+                .hasMessage("Time slot conflicts with existing appointment");
+
+        verify(appointmentRepository).findOverlapping("therapist123", start, start.plusHours(3));
+        verifyNoMoreInteractions(appointmentRepository);
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Adjacent existing slots do not conflict, rows are saved in one batch
+    // --------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void createAll_ShouldSaveAllSlots_WhenNoConflict() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<CreateAppointmentRequest> slots = List.of(slot(start, 60), slot(start.plusHours(1), 60));
+
+        when(appointmentRepository.findOverlapping(anyString(), any(), any()))
+                .thenReturn(List.of(existing(start.minusHours(1), 60), existing(start.plusHours(2), 60)));
+        when(appointmentRepository.saveAllAndFlush(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<Appointment> result = bulkCreateAppointments.createAll("therapist123", slots);
+
+        assertThat(result).hasSize(2);
+        assertThat(result).allSatisfy(a -> {
+            assertThat(a.getTherapistKeycloakId()).isEqualTo("therapist123");
+            assertThat(a.getStatus()).isEqualTo(AppointmentStatus.AVAILABLE);
+        });
+        verify(appointmentRepository).saveAllAndFlush(anyList());
+        verify(availabilityIndex).addAfterCommit(result);
+        verify(appointmentEventOutbox).appendAll(AppointmentEventOutbox.APPOINTMENT_CREATED, result);
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — Mon–Fri 09:00–17:00, 50 + 10 minutes, 12 weeks
+    // --------------------------------------------------------
+    @Test
+    void expand_ShouldGenerateWeeklySlots() {
+        LocalDate nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        List<CreateAppointmentRequest> slots = bulkCreateAppointments.expand(weekdays(nextMonday, 12), "weekly");
+
+        // 8 slots per day (09:00 ... 16:00), 5 days, 12 weeks
+        assertThat(slots).hasSize(8 * 5 * 12);
+        assertThat(slots.get(0).getStartTime()).isEqualTo(nextMonday.atTime(9, 0));
+        assertThat(slots.get(0).getEndTime()).isEqualTo(nextMonday.atTime(9, 50));
+        assertThat(slots.get(1).getStartTime()).isEqualTo(nextMonday.atTime(10, 0));
+        assertThat(slots.get(7).getEndTime()).isEqualTo(nextMonday.atTime(16, 50));
+        assertThat(slots).allSatisfy(s -> assertThat(s.getNotes()).isEqualTo("weekly"));
+    }
+
+    // --------------------------------------------------------
+    // TEST 5 — Invalid rule is rejected
+    // --------------------------------------------------------
+    @Test
+    void createRecurring_ShouldThrow_WhenRuleInvalid() {
+        RecurrenceRule rule = weekdays(LocalDate.now().plusDays(1), 0);
+
+        assertThatThrownBy(() ->
+                bulkCreateAppointments.createRecurring("therapist123", rule, null)
+        ).isInstanceOf(RuntimeException.class)
+                .hasMessage("Recurrence must cover between 1 and 52 weeks");
+
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    // --------------------------------------------------------
+    // TEST 6 — A full year of Mon–Fri 09:00–17:00 hourly slots is within the limit
+    // --------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void createRecurring_ShouldAcceptFullYearOfWorkingHours() {
+        LocalDate nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        RecurrenceRule rule = weekdays(nextMonday, 52);
+        rule.setSlotMinutes(60);
+        rule.setGapMinutes(0);
+
+        when(appointmentRepository.findOverlapping(anyString(), any(), any())).thenReturn(List.of());
+        when(appointmentRepository.saveAllAndFlush(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<Appointment> result = bulkCreateAppointments.createRecurring("therapist123", rule, null);
+
+        // 8 slots per day, 5 days, 52 weeks
+        assertThat(result).hasSize(2080);
+    }
+
+    // --------------------------------------------------------
+    // TEST 7 — An oversized rule is rejected before it is expanded
+    // --------------------------------------------------------
+    @Test
+    void createRecurring_ShouldThrow_WhenRuleExpandsBeyondLimit() {
+        LocalDate nextMonday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        RecurrenceRule rule = weekdays(nextMonday, 52);
+        rule.setDaysOfWeek(EnumSet.allOf(DayOfWeek.class));
+        rule.setSlotMinutes(15);
+        rule.setGapMinutes(0);
+
+        // 32 slots per day, 7 days, 52 weeks
+        assertThatThrownBy(() ->
+                bulkCreateAppointments.createRecurring("therapist123", rule, null)
+        ).isInstanceOf(RuntimeException.class)
+                .hasMessage("Recurrence expands to 11648 slots, at most 3120 can be created at once");
+
+        verifyNoInteractions(appointmentRepository);
+    }
+}
@@ -1,10 +1,19 @@
 package org.example.business.impl;
 
+import org.example.business.AppointmentEventOutbox;
+import org.example.business.AvailabilityIndex;
+import org.example.business.AvailableSlotsResponseCache;
+import org.example.business.ConflictRetry;
+import org.example.business.exception.AppointmentConflictException;
+import org.example.domain.AppointmentStatus;
 import org.example.persistance.AppointmentRepository;
+import org.example.persistance.AppointmentTombstoneRepository;
 import org.example.persistance.entity.AppointmentEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
@@ -14,12 +23,22 @@ import static org.mockito.Mockito.*;
 class CancelAppointmentImplTest {
 
     private AppointmentRepository appointmentRepository;
+    private AvailabilityIndex availabilityIndex;
+    private AvailableSlotsResponseCache availableSlotsResponseCache;
+    private AppointmentEventOutbox appointmentEventOutbox;
+    private AppointmentTombstoneRepository appointmentTombstoneRepository;
     private CancelAppointmentImpl cancelAppointment;
 
     @BeforeEach
     void setUp() {
         appointmentRepository = mock(AppointmentRepository.class);
-        cancelAppointment = new CancelAppointmentImpl(appointmentRepository);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        availableSlotsResponseCache = mock(AvailableSlotsResponseCache.class);
+        appointmentEventOutbox = mock(AppointmentEventOutbox.class);
+        appointmentTombstoneRepository = mock(AppointmentTombstoneRepository.class);
+        cancelAppointment = new CancelAppointmentImpl(appointmentRepository, availabilityIndex, availableSlotsResponseCache,
+                new ConflictRetry(3, Duration.ZERO, mock(PlatformTransactionManager.class)),
+                appointmentEventOutbox, appointmentTombstoneRepository);
     }
 
     private AppointmentEntity baseEntity() {
@@ -27,7 +46,7 @@ class CancelAppointmentImplTest {
                 .id(1L)
                 .therapistKeycloakId("therapist123")
                 .patientKeycloakId("patient123")
-                .status("BOOKED")
+                .status(AppointmentStatus.BOOKED)
                 .startTime(LocalDateTime.now())
                 .endTime(LocalDateTime.now().plusHours(1))
                 .createdAt(LocalDateTime.now())
@@ -35,9 +54,15 @@ class CancelAppointmentImplTest {
                 .build();
     }
 
+    private void givenNothingCancelled(String userKeycloakId) {
+        when(appointmentRepository.cancelIfActive(eq(1L), eq(userKeycloakId), isNull(), any()))
+                .thenReturn(Optional.empty());
+    }
+
     @Test
     void cancel_ShouldThrow_WhenAppointmentNotFound() {
 
+        givenNothingCancelled("patient123");
         when(appointmentRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() ->
@@ -46,15 +71,14 @@ class CancelAppointmentImplTest {
                 .hasMessage("Appointment not found");
 
         verify(appointmentRepository).findById(1L);
-        verifyNoMoreInteractions(appointmentRepository);
+        verifyNoInteractions(availabilityIndex, appointmentEventOutbox);
     }
 
     @Test
     void cancel_ShouldThrow_WhenUserNotAuthorized() {
 
-        AppointmentEntity entity = baseEntity();
-
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(entity));
+        givenNothingCancelled("randomUser999");
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(baseEntity()));
 
         assertThatThrownBy(() ->
                 cancelAppointment.cancel(1L, "randomUser999")
@@ -62,90 +86,98 @@ class CancelAppointmentImplTest {
                 .hasMessage("User not authorized to cancel this appointment");
 
         verify(appointmentRepository).findById(1L);
-        verifyNoMoreInteractions(appointmentRepository);
+        verifyNoInteractions(availabilityIndex, appointmentEventOutbox);
     }
 
     @Test
     void cancel_ShouldThrow_WhenStatusIsNotCancellable() {
 
         AppointmentEntity entity = baseEntity();
-        entity.setStatus("CANCELLED");
+        entity.setStatus(AppointmentStatus.CANCELLED);
+        entity.setPatientKeycloakId(null);
 
+        givenNothingCancelled("therapist123");
         when(appointmentRepository.findById(1L)).thenReturn(Optional.of(entity));
 
         assertThatThrownBy(() ->
                 cancelAppointment.cancel(1L, "therapist123")
-        ).isInstanceOf(RuntimeException.class)
+        ).isInstanceOf(AppointmentConflictException.class)
                 .hasMessage("Appointment cannot be cancelled");
 
         verify(appointmentRepository).findById(1L);
-        verifyNoMoreInteractions(appointmentRepository);
     }
 
     @Test
     void cancel_ShouldThrow_WhenCompleted() {
 
         AppointmentEntity entity = baseEntity();
-        entity.setStatus("COMPLETED");
+        entity.setStatus(AppointmentStatus.COMPLETED);
 
+        givenNothingCancelled("patient123");
         when(appointmentRepository.findById(1L)).thenReturn(Optional.of(entity));
 
         assertThatThrownBy(() ->
                 cancelAppointment.cancel(1L, "patient123")
-        ).isInstanceOf(RuntimeException.class)
+        ).isInstanceOf(AppointmentConflictException.class)
                 .hasMessage("Appointment cannot be cancelled");
 
         verify(appointmentRepository).findById(1L);
-        verifyNoMoreInteractions(appointmentRepository);
     }
 
-
     @Test
-    void cancel_ShouldCancelBooked_WhenTherapistCancels() {
+    void cancel_ShouldCancelWithSingleStatement_WhenTherapistCancels() {
 
-        AppointmentEntity entity = baseEntity();
+        AppointmentEntity cancelled = baseEntity();
+        cancelled.setStatus(AppointmentStatus.CANCELLED);
+        cancelled.setPatientKeycloakId(null);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(entity));
+        when(appointmentRepository.cancelIfActive(eq(1L), eq("therapist123"), isNull(), any()))
+                .thenReturn(Optional.of(cancelled));
 
         cancelAppointment.cancel(1L, "therapist123");
 
-        assertThat(entity.getStatus()).isEqualTo("CANCELLED");
-        assertThat(entity.getPatientKeycloakId()).isNull();
-
-        verify(appointmentRepository).findById(1L);
-        verify(appointmentRepository).save(entity);
+        verify(appointmentRepository).cancelIfActive(eq(1L), eq("therapist123"), isNull(), any(LocalDateTime.class));
+        verifyNoMoreInteractions(appointmentRepository);
+        verify(availabilityIndex).remove("therapist123", cancelled.getStartTime(), 1L);
+        verify(availableSlotsResponseCache).invalidate("therapist123");
     }
 
     @Test
-    void cancel_ShouldCancelBooked_WhenPatientCancels() {
+    void cancel_ShouldCancelWithSingleStatement_WhenPatientCancels() {
 
-        AppointmentEntity entity = baseEntity();
+        // The returned row still names the patient it had before cancelling
+        AppointmentEntity cancelled = baseEntity();
+        cancelled.setStatus(AppointmentStatus.CANCELLED);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(entity));
+        when(appointmentRepository.cancelIfActive(eq(1L), eq("patient123"), isNull(), any()))
+                .thenReturn(Optional.of(cancelled));
 
         cancelAppointment.cancel(1L, "patient123");
 
-        assertThat(entity.getStatus()).isEqualTo("CANCELLED");
-        assertThat(entity.getPatientKeycloakId()).isNull();
-
-        verify(appointmentRepository).findById(1L);
-        verify(appointmentRepository).save(entity);
+        verify(appointmentRepository).cancelIfActive(eq(1L), eq("patient123"), isNull(), any(LocalDateTime.class));
+        verifyNoMoreInteractions(appointmentRepository);
+        verify(availabilityIndex).remove("therapist123", cancelled.getStartTime(), 1L);
+        verify(appointmentEventOutbox).append(eq(AppointmentEventOutbox.APPOINTMENT_CANCELLED),
+                argThat(a -> "patient123".equals(a.getPatientKeycloakId()) && AppointmentStatus.CANCELLED.equals(a.getStatus())));
+        verify(appointmentTombstoneRepository).save(argThat(t ->
+                t.getAppointmentId().equals(1L) && "patient123".equals(t.getUserKeycloakId())));
     }
 
     @Test
-    void cancel_ShouldCancelAvailable_WhenTherapistCancels() {
+    void cancel_ShouldThrowConflict_WhenVersionIsStale() {
 
-        AppointmentEntity entity = baseEntity();
-        entity.setStatus("AVAILABLE");
-        entity.setPatientKeycloakId(null);
+        AppointmentEntity current = baseEntity();
+        current.setVersion(7L);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(entity));
+        when(appointmentRepository.cancelIfActive(eq(1L), eq("patient123"), eq(6L), any()))
+                .thenReturn(Optional.empty());
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(current));
 
-        cancelAppointment.cancel(1L, "therapist123");
-
-        assertThat(entity.getStatus()).isEqualTo("CANCELLED");
+        assertThatThrownBy(() ->
+                cancelAppointment.cancel(1L, "patient123", 6L)
+        ).isInstanceOf(AppointmentConflictException.class)
+                .hasMessage("Appointment was modified by another request");
 
-        verify(appointmentRepository).findById(1L);
-        verify(appointmentRepository).save(entity);
+        verifyNoInteractions(availabilityIndex, appointmentEventOutbox);
     }
 }
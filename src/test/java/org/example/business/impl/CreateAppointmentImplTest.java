@@ -1,13 +1,23 @@
 package org.example.business.impl;
 
+import org.example.business.AppointmentEventOutbox;
+import org.example.business.AvailabilityIndex;
+import org.example.business.AvailableSlotsResponseCache;
+import org.example.business.exception.AppointmentConflictException;
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
 import org.example.persistance.AppointmentRepository;
 import org.example.persistance.entity.AppointmentEntity;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -15,12 +25,26 @@ import static org.mockito.Mockito.*;
 class CreateAppointmentImplTest {
 
     private AppointmentRepository appointmentRepository;
+    private AvailabilityIndex availabilityIndex;
+    private AvailableSlotsResponseCache availableSlotsResponseCache;
+    private AppointmentEventOutbox appointmentEventOutbox;
     private CreateAppointmentImpl createAppointment;
 
     @BeforeEach
     void setUp() {
         appointmentRepository = mock(AppointmentRepository.class);
-        createAppointment = new CreateAppointmentImpl(appointmentRepository);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        availableSlotsResponseCache = mock(AvailableSlotsResponseCache.class);
+        appointmentEventOutbox = mock(AppointmentEventOutbox.class);
+        createAppointment = new CreateAppointmentImpl(appointmentRepository, availabilityIndex,
+                availableSlotsResponseCache, appointmentEventOutbox);
+    }
+
+    private DataIntegrityViolationException violation(String sqlState, String constraint) {
+        PSQLException cause = new PSQLException(new ServerErrorMessage(
+                "SERROR\0C" + sqlState + "\0Mviolates constraint\0n" + constraint + "\0"));
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", cause, null));
     }
 
     // --------------------------------------------------------
@@ -58,31 +82,45 @@ class CreateAppointmentImplTest {
     }
 
     // --------------------------------------------------------
-    // TEST 3 — Overlapping appointments must be blocked
+    // TEST 3 — Exclusion constraint violation is mapped to a conflict
     // --------------------------------------------------------
     @Test
-    void create_ShouldThrow_WhenTimeSlotOverlaps() {
+    void create_ShouldThrowConflict_WhenTimeSlotOverlaps() {
         String therapistId = "therapist123";
         LocalDateTime startTime = LocalDateTime.now().plusHours(2);
         LocalDateTime endTime = startTime.plusHours(1);
 
-        when(appointmentRepository.existsByTherapistKeycloakIdAndStartTimeBetween(
-                eq(therapistId), any(), eq(endTime))
-        ).thenReturn(true);
+        // A partition's copy of the constraint; Hibernate leaves the name to the driver
+        when(appointmentRepository.saveAndFlush(any(AppointmentEntity.class)))
+                .thenThrow(violation("23P01", "appointments_2030_03_no_overlap"));
 
         assertThatThrownBy(() ->
                 createAppointment.create(therapistId, startTime, endTime, "notes")
-        ).isInstanceOf(RuntimeException.class)
+        ).isInstanceOf(AppointmentConflictException.class)
                 .hasMessage("Time slot conflicts with existing appointment");
 
-        verify(appointmentRepository).existsByTherapistKeycloakIdAndStartTimeBetween(
-                eq(therapistId), any(), eq(endTime)
-        );
+        verify(appointmentRepository).saveAndFlush(any(AppointmentEntity.class));
         verifyNoMoreInteractions(appointmentRepository);
+        verifyNoInteractions(availabilityIndex, appointmentEventOutbox);
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — Other integrity violations are not reported as conflicts
+    // --------------------------------------------------------
+    @Test
+    void create_ShouldRethrow_WhenOtherIntegrityViolation() {
+        LocalDateTime startTime = LocalDateTime.now().plusHours(2);
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("not-null violated");
+
+        when(appointmentRepository.saveAndFlush(any(AppointmentEntity.class))).thenThrow(violation);
+
+        assertThatThrownBy(() ->
+                createAppointment.create("therapist123", startTime, startTime.plusHours(1), "notes")
+        ).isSameAs(violation);
     }
 
     // --------------------------------------------------------
-    // TEST 4 — Successful creation
+    // TEST 5 — Successful creation
     // --------------------------------------------------------
     @Test
     void create_ShouldSaveAppointment_WhenValid() {
@@ -97,32 +135,28 @@ class CreateAppointmentImplTest {
                 .therapistKeycloakId(therapistId)
                 .startTime(startTime)
                 .endTime(endTime)
-                .status("AVAILABLE")
+                .status(AppointmentStatus.AVAILABLE)
                 .notes(notes)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        when(appointmentRepository.existsByTherapistKeycloakIdAndStartTimeBetween(
-                anyString(), any(), any())
-        ).thenReturn(false);
-
-        when(appointmentRepository.save(any(AppointmentEntity.class)))
+        when(appointmentRepository.saveAndFlush(any(AppointmentEntity.class)))
                 .thenReturn(saved);
 
         // Act
         Appointment result = createAppointment.create(therapistId, startTime, endTime, notes);
 
-        // Capture entity passed to save()
+        // Capture entity passed to saveAndFlush()
         ArgumentCaptor<AppointmentEntity> captor = ArgumentCaptor.forClass(AppointmentEntity.class);
-        verify(appointmentRepository).save(captor.capture());
+        verify(appointmentRepository).saveAndFlush(captor.capture());
         AppointmentEntity passed = captor.getValue();
 
         // Validate fields of the entity BEFORE saving
         assertThat(passed.getTherapistKeycloakId()).isEqualTo(therapistId);
         assertThat(passed.getStartTime()).isEqualTo(startTime);
         assertThat(passed.getEndTime()).isEqualTo(endTime);
-        assertThat(passed.getStatus()).isEqualTo("AVAILABLE");
+        assertThat(passed.getStatus()).isEqualTo(AppointmentStatus.AVAILABLE);
         assertThat(passed.getNotes()).isEqualTo(notes);
 
         // Validate returned domain object matches saved entity
@@ -130,7 +164,27 @@ class CreateAppointmentImplTest {
         assertThat(result.getTherapistKeycloakId()).isEqualTo(therapistId);
         assertThat(result.getStartTime()).isEqualTo(startTime);
         assertThat(result.getEndTime()).isEqualTo(endTime);
-        assertThat(result.getStatus()).isEqualTo("AVAILABLE");
+        assertThat(result.getStatus()).isEqualTo(AppointmentStatus.AVAILABLE);
         assertThat(result.getNotes()).isEqualTo(notes);
+
+        // New slot is published to the availability index and recorded in the outbox
+        verify(availabilityIndex).addAfterCommit(List.of(result));
+        verify(availableSlotsResponseCache).invalidate(therapistId);
+        verify(appointmentEventOutbox).append(AppointmentEventOutbox.APPOINTMENT_CREATED, result);
+    }
+
+    // --------------------------------------------------------
+    // TEST 6 — Another violation on a constraint with a similar name is not a conflict
+    // --------------------------------------------------------
+    @Test
+    void create_ShouldRethrow_WhenViolationIsNotTheExclusionConstraint() {
+        LocalDateTime startTime = LocalDateTime.now().plusHours(2);
+        DataIntegrityViolationException violation = violation("23505", "appointments_no_overlap");
+
+        when(appointmentRepository.saveAndFlush(any(AppointmentEntity.class))).thenThrow(violation);
+
+        assertThatThrownBy(() ->
+                createAppointment.create("therapist123", startTime, startTime.plusHours(1), "notes")
+        ).isSameAs(violation);
     }
 }
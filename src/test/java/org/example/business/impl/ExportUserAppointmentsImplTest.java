@@ -0,0 +1,105 @@
+package org.example.business.impl;
+
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
+import org.example.persistance.AppointmentArchiveRepository;
+import org.example.persistance.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ExportUserAppointmentsImplTest {
+
+    private AppointmentRepository appointmentRepository;
+    private AppointmentArchiveRepository appointmentArchiveRepository;
+    private ExportUserAppointmentsImpl exportUserAppointments;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        appointmentArchiveRepository = mock(AppointmentArchiveRepository.class);
+        exportUserAppointments = new ExportUserAppointmentsImpl(appointmentRepository, appointmentArchiveRepository);
+        when(appointmentArchiveRepository.streamPatientAppointments("user123")).thenReturn(Stream.empty());
+    }
+
+    private Appointment createAppointment(Long id) {
+        return Appointment.builder()
+                .id(id)
+                .therapistKeycloakId("therapist123")
+                .patientKeycloakId("user123")
+                .status(AppointmentStatus.BOOKED)
+                .startTime(LocalDateTime.now().plusDays(id))
+                .endTime(LocalDateTime.now().plusDays(id).plusHours(1))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Every row reaches the sink in order, stream is closed
+    // --------------------------------------------------------
+    @Test
+    void export_ShouldWriteEachRowAndCloseStream() {
+        Appointment first = createAppointment(1L);
+        Appointment second = createAppointment(2L);
+        AtomicBoolean closed = new AtomicBoolean();
+
+        when(appointmentRepository.streamUserAppointments("user123"))
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+
+        List<Appointment> written = new ArrayList<>();
+        exportUserAppointments.export("user123", written::add);
+
+        assertThat(written).containsExactly(first, second);
+        assertThat(closed).isTrue();
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — Stream is closed when the sink fails (client went away)
+    // --------------------------------------------------------
+    @Test
+    void export_ShouldCloseStream_WhenSinkFails() {
+        AtomicBoolean closed = new AtomicBoolean();
+
+        when(appointmentRepository.streamUserAppointments("user123"))
+                .thenReturn(Stream.of(createAppointment(1L)).onClose(() -> closed.set(true)));
+
+        assertThatThrownBy(() ->
+                exportUserAppointments.export("user123", appointment -> {
+                    throw new IllegalStateException("Broken pipe");
+                })
+        ).isInstanceOf(IllegalStateException.class);
+
+        assertThat(closed).isTrue();
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Archived rows are interleaved by start time, both streams are closed
+    // --------------------------------------------------------
+    @Test
+    void export_ShouldMergeArchivedRows() {
+        Appointment first = createAppointment(1L);
+        Appointment second = createAppointment(2L);
+        Appointment third = createAppointment(3L);
+        AtomicBoolean archiveClosed = new AtomicBoolean();
+
+        when(appointmentRepository.streamUserAppointments("user123")).thenReturn(Stream.of(second));
+        when(appointmentArchiveRepository.streamPatientAppointments("user123"))
+                .thenReturn(Stream.of(first, third).onClose(() -> archiveClosed.set(true)));
+
+        List<Appointment> written = new ArrayList<>();
+        exportUserAppointments.export("user123", written::add);
+
+        assertThat(written).containsExactly(first, second, third);
+        assertThat(archiveClosed).isTrue();
+    }
+}
@@ -1,30 +1,43 @@
 package org.example.business.impl;
 
+import org.example.business.AvailabilityIndex;
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentPage;
+import org.example.domain.AppointmentStatus;
+import org.example.domain.PageCursor;
 import org.example.persistance.AppointmentRepository;
 import org.example.persistance.entity.AppointmentEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class GetAvailableSlotsImplTest {
 
     private AppointmentRepository appointmentRepository;
+    private AvailabilityIndex availabilityIndex;
     private GetAvailableSlotsImpl getAvailableSlots;
 
     @BeforeEach
     void setUp() {
         appointmentRepository = mock(AppointmentRepository.class);
-        getAvailableSlots = new GetAvailableSlotsImpl(appointmentRepository);
+        availabilityIndex = mock(AvailabilityIndex.class);
+        getAvailableSlots = new GetAvailableSlotsImpl(appointmentRepository, availabilityIndex);
     }
 
-    private AppointmentEntity appointment(Long id, String status, LocalDateTime start) {
-        return AppointmentEntity.builder()
+    private Appointment appointment(Long id, AppointmentStatus status, LocalDateTime start) {
+        return Appointment.builder()
                 .id(id)
                 .therapistKeycloakId("therapist123")
                 .patientKeycloakId(null)
@@ -38,30 +51,30 @@ class GetAvailableSlotsImplTest {
     }
 
     // --------------------------------------------------------
-    // TEST 1 — Only future AVAILABLE appointments are returned
+    // TEST 1 — Status and time window are pushed into the query
     // --------------------------------------------------------
     @Test
-    void getAvailable_ShouldReturnOnlyAvailableFutureSlots() {
+    void getAvailable_ShouldQueryOnlyAvailableFutureSlots() {
 
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime before = LocalDateTime.now();
 
-        AppointmentEntity availableFuture = appointment(1L, "AVAILABLE", now.plusDays(1));
-        AppointmentEntity bookedFuture = appointment(2L, "BOOKED", now.plusDays(1));
-        AppointmentEntity pastAvailable = appointment(3L, "AVAILABLE", now.minusDays(1));
+        Appointment sooner = appointment(1L, AppointmentStatus.AVAILABLE, before.plusDays(1));
+        Appointment later = appointment(2L, AppointmentStatus.AVAILABLE, before.plusDays(2));
 
-        when(appointmentRepository.findByTherapistKeycloakIdAndStartTimeAfter(
+        when(appointmentRepository.findAvailableSlots(
                 eq("therapist123"), any(LocalDateTime.class))
-        ).thenReturn(List.of(availableFuture, bookedFuture, pastAvailable));
+        ).thenReturn(List.of(sooner, later));
 
         // Act
         List<Appointment> result = getAvailableSlots.getAvailable("therapist123");
 
         // Assert
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getId()).isEqualTo(1L);
-        assertThat(result.get(0).getStatus()).isEqualTo("AVAILABLE");
+        assertThat(result).extracting(Appointment::getId).containsExactly(1L, 2L);
 
-        verify(appointmentRepository).findByTherapistKeycloakIdAndStartTimeAfter(eq("therapist123"), any(LocalDateTime.class));
+        ArgumentCaptor<LocalDateTime> after = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(appointmentRepository).findAvailableSlots(
+                eq("therapist123"), after.capture());
+        assertThat(after.getValue()).isAfterOrEqualTo(before);
     }
 
     // --------------------------------------------------------
@@ -70,7 +83,7 @@ class GetAvailableSlotsImplTest {
     @Test
     void getAvailable_ShouldReturnEmptyList_WhenNoAvailableSlots() {
 
-        when(appointmentRepository.findByTherapistKeycloakIdAndStartTimeAfter(
+        when(appointmentRepository.findAvailableSlots(
                 eq("therapist123"), any(LocalDateTime.class))
         ).thenReturn(List.of());
 
@@ -78,22 +91,23 @@ class GetAvailableSlotsImplTest {
 
         assertThat(result).isEmpty();
 
-        verify(appointmentRepository).findByTherapistKeycloakIdAndStartTimeAfter(eq("therapist123"), any(LocalDateTime.class));
+        verify(appointmentRepository).findAvailableSlots(
+                eq("therapist123"), any(LocalDateTime.class));
     }
 
     // --------------------------------------------------------
-    // TEST 3 — Ensure domain model mapping correct
+    // TEST 3 — Projected rows are returned as they come from the query
     // --------------------------------------------------------
     @Test
-    void getAvailable_ShouldMapEntityToDomainCorrectly() {
+    void getAvailable_ShouldReturnProjectedRows() {
 
         LocalDateTime future = LocalDateTime.now().plusHours(2);
 
-        AppointmentEntity entity = appointment(10L, "AVAILABLE", future);
+        Appointment projected = appointment(10L, AppointmentStatus.AVAILABLE, future);
 
-        when(appointmentRepository.findByTherapistKeycloakIdAndStartTimeAfter(
+        when(appointmentRepository.findAvailableSlots(
                 eq("therapist123"), any(LocalDateTime.class))
-        ).thenReturn(List.of(entity));
+        ).thenReturn(List.of(projected));
 
         List<Appointment> result = getAvailableSlots.getAvailable("therapist123");
 
@@ -101,11 +115,194 @@ class GetAvailableSlotsImplTest {
 
         assertThat(a.getId()).isEqualTo(10L);
         assertThat(a.getTherapistKeycloakId()).isEqualTo("therapist123");
-        assertThat(a.getStatus()).isEqualTo("AVAILABLE");
+        assertThat(a.getStatus()).isEqualTo(AppointmentStatus.AVAILABLE);
         assertThat(a.getStartTime()).isEqualTo(future);
         assertThat(a.getEndTime()).isEqualTo(future.plusHours(1));
         assertThat(a.getNotes()).isEqualTo("notes");
 
-        verify(appointmentRepository).findByTherapistKeycloakIdAndStartTimeAfter(eq("therapist123"), any(LocalDateTime.class));
+        verify(appointmentRepository).findAvailableSlots(
+                eq("therapist123"), any(LocalDateTime.class));
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — Enabled index serves the request
+    // --------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAvailable_ShouldUseIndex_WhenEnabled() {
+
+        Appointment indexed = Appointment.builder()
+                .id(5L)
+                .therapistKeycloakId("therapist123")
+                .status(AppointmentStatus.AVAILABLE)
+                .build();
+
+        when(availabilityIndex.isEnabled()).thenReturn(true);
+        when(availabilityIndex.getAvailable(eq("therapist123"), any(Function.class)))
+                .thenReturn(List.of(indexed));
+
+        List<Appointment> result = getAvailableSlots.getAvailable("therapist123");
+
+        assertThat(result).containsExactly(indexed);
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    // --------------------------------------------------------
+    // TEST 5 — First page starts at now and returns a cursor when more rows exist
+    // --------------------------------------------------------
+    @Test
+    void getAvailablePage_ShouldReturnCursor_WhenMoreRowsExist() {
+
+        LocalDateTime future = LocalDateTime.now().plusDays(1);
+
+        when(appointmentRepository.findAvailablePage(
+                eq("therapist123"), any(LocalDateTime.class), eq(Long.MIN_VALUE),
+                any(LocalDateTime.class), eq(Limit.of(3)))
+        ).thenReturn(List.of(
+                appointment(1L, AppointmentStatus.AVAILABLE, future),
+                appointment(2L, AppointmentStatus.AVAILABLE, future.plusHours(1)),
+                appointment(3L, AppointmentStatus.AVAILABLE, future.plusHours(2))));
+
+        AppointmentPage page = getAvailableSlots.getAvailable("therapist123", null, null, null, 2);
+
+        assertThat(page.getAppointments()).extracting(Appointment::getId).containsExactly(1L, 2L);
+        PageCursor next = PageCursor.decode(page.getNextCursor());
+        assertThat(next.getStartTime()).isEqualTo(future.plusHours(1));
+        assertThat(next.getId()).isEqualTo(2L);
+    }
+
+    // --------------------------------------------------------
+    // TEST 6 — Cursor continues after the last row, last page has no cursor
+    // --------------------------------------------------------
+    @Test
+    void getAvailablePage_ShouldContinueFromCursor() {
+
+        LocalDateTime future = LocalDateTime.now().plusDays(1);
+        LocalDateTime to = future.plusDays(7);
+        String cursor = new PageCursor(future, 2L).encode();
+
+        when(appointmentRepository.findAvailablePage(
+                "therapist123", future, 2L, to, Limit.of(51))
+        ).thenReturn(List.of(appointment(3L, AppointmentStatus.AVAILABLE, future.plusHours(2))));
+
+        AppointmentPage page = getAvailableSlots.getAvailable("therapist123", null, to, cursor, 50);
+
+        assertThat(page.getAppointments()).extracting(Appointment::getId).containsExactly(3L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    // --------------------------------------------------------
+    // TEST 7 — Malformed cursor is rejected
+    // --------------------------------------------------------
+    @Test
+    void getAvailablePage_ShouldThrow_WhenCursorInvalid() {
+
+        assertThatThrownBy(() ->
+                getAvailableSlots.getAvailable("therapist123", null, null, "not-a-cursor", 10)
+        ).isInstanceOf(RuntimeException.class)
+                .hasMessage("Invalid page cursor");
+
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    // --------------------------------------------------------
+    // TEST 8 — Several therapists are searched in one query and grouped
+    // --------------------------------------------------------
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_ShouldQueryOnceAndGroupByTherapist() {
+
+        LocalDateTime future = LocalDateTime.now().plusDays(1);
+        AppointmentEntity first = AppointmentEntity.builder()
+                .id(1L).therapistKeycloakId("therapistA").status(AppointmentStatus.AVAILABLE)
+                .startTime(future).endTime(future.plusHours(1)).build();
+        AppointmentEntity second = AppointmentEntity.builder()
+                .id(2L).therapistKeycloakId("therapistA").status(AppointmentStatus.AVAILABLE)
+                .startTime(future.plusHours(1)).endTime(future.plusHours(2)).build();
+
+        when(appointmentRepository.findAvailableForTherapists(
+                anyCollection(), eq(future), any(LocalDateTime.class), eq(45), eq(3))
+        ).thenReturn(List.of(first, second));
+
+        Map<String, List<Appointment>> result = getAvailableSlots.search(
+                List.of("therapistA", "therapistB", "therapistA", " "), future, null, Duration.ofMinutes(45), 3);
+
+        assertThat(result).containsOnlyKeys("therapistA", "therapistB");
+        assertThat(result.get("therapistA")).extracting(Appointment::getId).containsExactly(1L, 2L);
+        assertThat(result.get("therapistB")).isEmpty();
+
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(appointmentRepository).findAvailableForTherapists(
+                ids.capture(), eq(future), any(LocalDateTime.class), eq(45), eq(3));
+        assertThat(ids.getValue()).containsExactly("therapistA", "therapistB");
+    }
+
+    // --------------------------------------------------------
+    // TEST 9 — An empty window or id list skips the query
+    // --------------------------------------------------------
+    @Test
+    void search_ShouldNotQuery_WhenWindowIsInThePast() {
+
+        LocalDateTime past = LocalDateTime.now().minusDays(1);
+
+        Map<String, List<Appointment>> result = getAvailableSlots.search(
+                List.of("therapistA"), past.minusDays(1), past, null, 5);
+
+        assertThat(result).containsOnlyKeys("therapistA");
+        assertThat(result.get("therapistA")).isEmpty();
+        assertThat(getAvailableSlots.search(List.of(), null, null, null, 5)).isEmpty();
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    // --------------------------------------------------------
+    // TEST 10 — Earliest slots of any therapist come from one limited query
+    // --------------------------------------------------------
+    @Test
+    void findEarliest_ShouldQueryAcrossAllTherapists() {
+
+        LocalDateTime before = LocalDateTime.now();
+        LocalDateTime future = before.plusHours(3);
+        AppointmentEntity slot = AppointmentEntity.builder()
+                .id(7L).therapistKeycloakId("therapistC").status(AppointmentStatus.AVAILABLE)
+                .startTime(future).endTime(future.plusMinutes(30)).build();
+
+        when(appointmentRepository.findEarliestAvailable(any(LocalDateTime.class), eq(0), eq(10)))
+                .thenReturn(List.of(slot));
+
+        List<Appointment> result = getAvailableSlots.findEarliest(null, null, null, 10);
+
+        assertThat(result).extracting(Appointment::getId).containsExactly(7L);
+
+        ArgumentCaptor<LocalDateTime> after = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(appointmentRepository).findEarliestAvailable(after.capture(), eq(0), eq(10));
+        assertThat(after.getValue()).isAfterOrEqualTo(before);
+    }
+
+    // --------------------------------------------------------
+    // TEST 11 — A therapist subset is merged by start time and cut to the limit
+    // --------------------------------------------------------
+    @Test
+    void findEarliest_ShouldMergeSubsetByStartTime() {
+
+        LocalDateTime future = LocalDateTime.now().plusDays(1);
+        AppointmentEntity laterA = AppointmentEntity.builder()
+                .id(1L).therapistKeycloakId("therapistA").status(AppointmentStatus.AVAILABLE)
+                .startTime(future.plusHours(2)).endTime(future.plusHours(3)).build();
+        AppointmentEntity soonerB = AppointmentEntity.builder()
+                .id(2L).therapistKeycloakId("therapistB").status(AppointmentStatus.AVAILABLE)
+                .startTime(future).endTime(future.plusHours(1)).build();
+        AppointmentEntity laterB = AppointmentEntity.builder()
+                .id(3L).therapistKeycloakId("therapistB").status(AppointmentStatus.AVAILABLE)
+                .startTime(future.plusHours(4)).endTime(future.plusHours(5)).build();
+
+        when(appointmentRepository.findAvailableForTherapists(
+                anyCollection(), eq(future), any(LocalDateTime.class), eq(60), eq(2))
+        ).thenReturn(List.of(laterA, soonerB, laterB));
+
+        List<Appointment> result = getAvailableSlots.findEarliest(
+                future, Duration.ofHours(1), List.of("therapistA", "therapistB"), 2);
+
+        assertThat(result).extracting(Appointment::getId).containsExactly(2L, 1L);
+        verify(appointmentRepository, never()).findEarliestAvailable(any(), anyInt(), anyInt());
     }
 }
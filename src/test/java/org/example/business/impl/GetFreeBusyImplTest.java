@@ -0,0 +1,110 @@
+package org.example.business.impl;
+
+import org.example.domain.BusyInterval;
+import org.example.domain.FreeBusy;
+import org.example.persistance.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class GetFreeBusyImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 3, 4, 0, 0);
+
+    private AppointmentRepository appointmentRepository;
+    private GetFreeBusyImpl getFreeBusy;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        getFreeBusy = new GetFreeBusyImpl(appointmentRepository);
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Back-to-back appointments merge into one busy block
+    // --------------------------------------------------------
+    @Test
+    void getFreeBusy_ShouldMergeAdjacentAppointments() {
+
+        when(appointmentRepository.findBusyIntervals("therapist123", DAY, DAY.plusDays(1))).thenReturn(List.of(
+                new BusyInterval(DAY.plusHours(9), DAY.plusHours(10)),
+                new BusyInterval(DAY.plusHours(10), DAY.plusHours(10).plusMinutes(30)),
+                new BusyInterval(DAY.plusHours(14).plusMinutes(5), DAY.plusHours(14).plusMinutes(50))));
+
+        FreeBusy result = getFreeBusy.getFreeBusy("therapist123", DAY, DAY.plusDays(1), 15, false);
+
+        assertThat(result.getSlots()).isEqualTo(96);
+        assertThat(result.getBitmap()).isNull();
+        // Partly covered slots count as busy, so the last block widens to whole quarters
+        assertThat(result.getBusy()).containsExactly(
+                new BusyInterval(DAY.plusHours(9), DAY.plusHours(10).plusMinutes(30)),
+                new BusyInterval(DAY.plusHours(14), DAY.plusHours(15)));
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — Bitmap mode returns one bit per slot from an aligned start
+    // --------------------------------------------------------
+    @Test
+    void getFreeBusy_ShouldReturnBitmapFromAlignedStart() {
+
+        LocalDateTime from = DAY.plusHours(8).plusMinutes(7);
+        LocalDateTime alignedFrom = DAY.plusHours(8);
+        when(appointmentRepository.findBusyIntervals("therapist123", alignedFrom, DAY.plusHours(12))).thenReturn(List.of(
+                new BusyInterval(DAY.plusHours(9), DAY.plusHours(9).plusMinutes(30))));
+
+        FreeBusy result = getFreeBusy.getFreeBusy("therapist123", from, DAY.plusHours(12), 30, true);
+
+        assertThat(result.getFrom()).isEqualTo(alignedFrom);
+        assertThat(result.getSlots()).isEqualTo(8);
+        assertThat(result.getBusy()).isNull();
+        BitSet bits = BitSet.valueOf(Base64.getDecoder().decode(result.getBitmap()));
+        assertThat(bits.stream().toArray()).containsExactly(2);
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Unsupported granularity and oversized ranges are rejected
+    // --------------------------------------------------------
+    @Test
+    void getFreeBusy_ShouldRejectInvalidRequests() {
+
+        assertThatThrownBy(() ->
+                getFreeBusy.getFreeBusy("therapist123", DAY, DAY.plusDays(1), 7, false)
+        ).isInstanceOf(RuntimeException.class)
+                .hasMessageStartingWith("Granularity must be one of");
+
+        assertThatThrownBy(() ->
+                getFreeBusy.getFreeBusy("therapist123", DAY, DAY.plusDays(400), 15, false)
+        ).isInstanceOf(RuntimeException.class)
+                .hasMessage("Range must not exceed 366 days");
+
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — An end time with seconds marks the slot it reaches into
+    // --------------------------------------------------------
+    @Test
+    void getFreeBusy_ShouldRoundSubMinuteEndsUp() {
+
+        LocalDateTime to = DAY.plusHours(12).plusSeconds(30);
+        when(appointmentRepository.findBusyIntervals("therapist123", DAY, to)).thenReturn(List.of(
+                new BusyInterval(DAY.plusHours(9), DAY.plusHours(10).plusSeconds(30)),
+                new BusyInterval(DAY.plusHours(11).plusMinutes(14).plusSeconds(59), DAY.plusHours(11).plusMinutes(15))));
+
+        FreeBusy result = getFreeBusy.getFreeBusy("therapist123", DAY, to, 15, false);
+
+        // The range's last half minute still gets a slot of its own
+        assertThat(result.getSlots()).isEqualTo(49);
+        assertThat(result.getBusy()).containsExactly(
+                new BusyInterval(DAY.plusHours(9), DAY.plusHours(10).plusMinutes(15)),
+                new BusyInterval(DAY.plusHours(11), DAY.plusHours(11).plusMinutes(15)));
+    }
+}
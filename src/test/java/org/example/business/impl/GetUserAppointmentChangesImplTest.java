@@ -0,0 +1,97 @@
+package org.example.business.impl;
+
+import org.example.business.GetUserAppointments;
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentChanges;
+import org.example.domain.AppointmentStatus;
+import org.example.persistance.AppointmentRepository;
+import org.example.persistance.AppointmentTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class GetUserAppointmentChangesImplTest {
+
+    private AppointmentRepository appointmentRepository;
+    private AppointmentTombstoneRepository appointmentTombstoneRepository;
+    private GetUserAppointments getUserAppointments;
+    private GetUserAppointmentChangesImpl getUserAppointmentChanges;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        appointmentTombstoneRepository = mock(AppointmentTombstoneRepository.class);
+        getUserAppointments = mock(GetUserAppointments.class);
+        getUserAppointmentChanges = new GetUserAppointmentChangesImpl(appointmentRepository,
+                appointmentTombstoneRepository, getUserAppointments, Duration.ofSeconds(5), Duration.ofDays(30));
+    }
+
+    private Appointment appointment(Long id, String therapist, String patient, AppointmentStatus status) {
+        return Appointment.builder()
+                .id(id)
+                .therapistKeycloakId(therapist)
+                .patientKeycloakId(patient)
+                .status(status)
+                .startTime(LocalDateTime.now().plusDays(1))
+                .endTime(LocalDateTime.now().plusDays(1).plusHours(1))
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Changed rows are split into updates and removals, tombstones are merged
+    // --------------------------------------------------------
+    @Test
+    void getChanges_ShouldReturnChangedAndRemoved() {
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+        LocalDateTime watermark = LocalDateTime.now();
+        when(appointmentRepository.findLastChangeForUser("therapist123")).thenReturn(watermark);
+        when(appointmentRepository.findChangedForUser("therapist123", since.minusSeconds(5))).thenReturn(List.of(
+                appointment(1L, "therapist123", "patient123", AppointmentStatus.BOOKED),
+                appointment(2L, "therapist123", null, AppointmentStatus.CANCELLED)));
+        when(appointmentTombstoneRepository.findRemovedAppointmentIds("therapist123", since.minusSeconds(5)))
+                .thenReturn(List.of(3L, 2L));
+
+        AppointmentChanges changes = getUserAppointmentChanges.getChanges("therapist123", since);
+
+        assertThat(changes.getAppointments()).extracting(Appointment::getId).containsExactly(1L);
+        assertThat(changes.getRemovedIds()).containsExactly(2L, 3L);
+        assertThat(changes.getWatermark()).isEqualTo(watermark);
+        assertThat(changes.isFullSync()).isFalse();
+        verifyNoInteractions(getUserAppointments);
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — A watermark older than the tombstone retention forces a full sync
+    // --------------------------------------------------------
+    @Test
+    void getChanges_ShouldReturnFullList_WhenSinceIsTooOld() {
+        List<Appointment> all = List.of(Appointment.builder().id(1L).build());
+        when(getUserAppointments.getUserAppointments("patient123")).thenReturn(all);
+
+        AppointmentChanges changes = getUserAppointmentChanges.getChanges("patient123",
+                LocalDateTime.now().minusDays(31));
+
+        assertThat(changes.isFullSync()).isTrue();
+        assertThat(changes.getAppointments()).isEqualTo(all);
+        assertThat(changes.getRemovedIds()).isEmpty();
+        verify(appointmentRepository, never()).findChangedForUser(anyString(), any());
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — A user without appointments still gets a stable watermark
+    // --------------------------------------------------------
+    @Test
+    void getLastModified_ShouldFallBackToEpoch_WhenNothingChanged() {
+        when(appointmentRepository.findLastChangeForUser("patient123")).thenReturn(null);
+
+        assertThat(getUserAppointmentChanges.getLastModified("patient123"))
+                .isEqualTo(LocalDateTime.of(1970, 1, 1, 0, 0));
+    }
+}
@@ -1,10 +1,14 @@
 package org.example.business.impl;
 
 import org.example.domain.Appointment;
+import org.example.domain.AppointmentPage;
+import org.example.domain.AppointmentStatus;
+import org.example.domain.PageCursor;
+import org.example.persistance.AppointmentArchiveRepository;
 import org.example.persistance.AppointmentRepository;
-import org.example.persistance.entity.AppointmentEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,16 +19,18 @@ import static org.mockito.Mockito.*;
 class GetUserAppointmentsImplTest {
 
     private AppointmentRepository appointmentRepository;
+    private AppointmentArchiveRepository appointmentArchiveRepository;
     private GetUserAppointmentsImpl getUserAppointments;
 
     @BeforeEach
     void setUp() {
         appointmentRepository = mock(AppointmentRepository.class);
-        getUserAppointments = new GetUserAppointmentsImpl(appointmentRepository);
+        appointmentArchiveRepository = mock(AppointmentArchiveRepository.class);
+        getUserAppointments = new GetUserAppointmentsImpl(appointmentRepository, appointmentArchiveRepository);
     }
 
-    private AppointmentEntity createEntity(Long id, String therapistId, String patientId, String status) {
-        return AppointmentEntity.builder()
+    private Appointment createAppointment(Long id, String therapistId, String patientId, AppointmentStatus status) {
+        return Appointment.builder()
                 .id(id)
                 .therapistKeycloakId(therapistId)
                 .patientKeycloakId(patientId)
@@ -38,88 +44,101 @@ class GetUserAppointmentsImplTest {
     }
 
     // --------------------------------------------------------
-    // TEST 1 — User as patient only
+    // TEST 1 — Both roles come from one query, in its order
     // --------------------------------------------------------
     @Test
-    void getUserAppointments_ShouldReturnAppointments_WhenUserIsPatient() {
-        AppointmentEntity patientAppt = createEntity(1L, "therapist123", "user123", "BOOKED");
+    void getUserAppointments_ShouldReturnBothRolesFromSingleQuery() {
+        Appointment asPatient = Appointment.builder()
+                .id(1L).therapistKeycloakId("therapist123").patientKeycloakId("user123")
+                .status(AppointmentStatus.BOOKED).role("PATIENT").build();
+        Appointment asTherapist = Appointment.builder()
+                .id(2L).therapistKeycloakId("user123").patientKeycloakId("patient456")
+                .status(AppointmentStatus.BOOKED).role("THERAPIST").build();
 
-        when(appointmentRepository.findByPatientKeycloakId("user123"))
-                .thenReturn(List.of(patientAppt));
-        when(appointmentRepository.findByTherapistKeycloakIdAndStatus("user123", "BOOKED"))
-                .thenReturn(List.of());
+        when(appointmentRepository.findUserAppointments("user123"))
+                .thenReturn(List.of(asPatient, asTherapist));
 
         List<Appointment> result = getUserAppointments.getUserAppointments("user123");
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo(1L);
+        assertThat(result).containsExactly(asPatient, asTherapist);
+        assertThat(result).extracting(Appointment::getRole).containsExactly("PATIENT", "THERAPIST");
 
-        verify(appointmentRepository).findByPatientKeycloakId("user123");
-        verify(appointmentRepository).findByTherapistKeycloakIdAndStatus("user123", "BOOKED");
+        verify(appointmentRepository).findUserAppointments("user123");
+        verifyNoMoreInteractions(appointmentRepository);
     }
 
     // --------------------------------------------------------
-    // TEST 2 — User as therapist only
+    // TEST 2 — No appointments
     // --------------------------------------------------------
     @Test
-    void getUserAppointments_ShouldReturnAppointments_WhenUserIsTherapist() {
-        AppointmentEntity therapistAppt = createEntity(2L, "user123", "patient456", "BOOKED");
+    void getUserAppointments_ShouldReturnEmptyList_WhenUserHasNoAppointments() {
+        when(appointmentRepository.findUserAppointments("user123")).thenReturn(List.of());
 
-        when(appointmentRepository.findByPatientKeycloakId("user123")).thenReturn(List.of());
-        when(appointmentRepository.findByTherapistKeycloakIdAndStatus("user123", "BOOKED"))
-                .thenReturn(List.of(therapistAppt));
-
-        List<Appointment> result = getUserAppointments.getUserAppointments("user123");
-
-        assertThat(result).hasSize(1);
-        Appointment appt = result.get(0);
-        assertThat(appt.getId()).isEqualTo(2L);
-        assertThat(appt.getTherapistKeycloakId()).isEqualTo("user123");
-        assertThat(appt.getPatientKeycloakId()).isEqualTo("patient456");
-
-        verify(appointmentRepository).findByPatientKeycloakId("user123");
-        verify(appointmentRepository).findByTherapistKeycloakIdAndStatus("user123", "BOOKED");
+        assertThat(getUserAppointments.getUserAppointments("user123")).isEmpty();
     }
 
     // --------------------------------------------------------
-    // TEST 3 — User as both therapist and patient with duplicates
+    // TEST 3 — Paged variant honours the window and page size
     // --------------------------------------------------------
     @Test
-    void getUserAppointments_ShouldDeduplicateAppointments() {
-        AppointmentEntity asPatient = createEntity(1L, "therapist123", "user123", "BOOKED");
-        AppointmentEntity asTherapist = createEntity(1L, "user123", "user123", "BOOKED"); // duplicate id
+    void getUserAppointmentsPage_ShouldQueryWindowAndReturnCursor() {
+        LocalDateTime from = LocalDateTime.now();
+        LocalDateTime to = from.plusMonths(1);
+        Appointment first = createAppointment(1L, "therapist123", "user123", AppointmentStatus.BOOKED);
+        Appointment second = createAppointment(2L, "user123", "patient456", AppointmentStatus.BOOKED);
 
-        when(appointmentRepository.findByPatientKeycloakId("user123")).thenReturn(List.of(asPatient));
-        when(appointmentRepository.findByTherapistKeycloakIdAndStatus("user123", "BOOKED"))
-                .thenReturn(List.of(asTherapist));
+        when(appointmentRepository.findUserPage("user123", from, Long.MIN_VALUE, to, Limit.of(2)))
+                .thenReturn(List.of(first, second));
 
-        List<Appointment> result = getUserAppointments.getUserAppointments("user123");
+        AppointmentPage page = getUserAppointments.getUserAppointments("user123", from, to, null, 1);
 
-        // deduplicated by .distinct()
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getId()).isEqualTo(1L);
+        assertThat(page.getAppointments()).extracting(Appointment::getId).containsExactly(1L);
+        assertThat(page.getNextCursor()).isNotNull();
 
-        verify(appointmentRepository).findByPatientKeycloakId("user123");
-        verify(appointmentRepository).findByTherapistKeycloakIdAndStatus("user123", "BOOKED");
+        verify(appointmentRepository).findUserPage("user123", from, Long.MIN_VALUE, to, Limit.of(2));
+        verifyNoMoreInteractions(appointmentRepository);
     }
 
     // --------------------------------------------------------
-    // TEST 4 — Mapping correctness
+    // TEST 4 — Archived appointments are merged in by start time, each once
     // --------------------------------------------------------
     @Test
-    void getUserAppointments_ShouldMapEntityToDomain() {
-        AppointmentEntity entity = createEntity(10L, "therapistX", "user123", "BOOKED");
-
-        when(appointmentRepository.findByPatientKeycloakId("user123")).thenReturn(List.of(entity));
-        when(appointmentRepository.findByTherapistKeycloakIdAndStatus("user123", "BOOKED"))
-                .thenReturn(List.of());
-
-        Appointment appt = getUserAppointments.getUserAppointments("user123").get(0);
+    void getUserAppointments_ShouldMergeArchivedAppointmentsInOrder() {
+        LocalDateTime day = LocalDateTime.of(2030, 3, 4, 0, 0);
+        Appointment archived = Appointment.builder()
+                .id(1L).startTime(day.plusHours(9)).status(AppointmentStatus.COMPLETED).role("PATIENT").build();
+        Appointment live = Appointment.builder()
+                .id(5L).startTime(day.plusHours(10)).status(AppointmentStatus.BOOKED).role("PATIENT").build();
+        Appointment movedWhileReading = Appointment.builder()
+                .id(3L).startTime(day.plusHours(11)).status(AppointmentStatus.COMPLETED).role("PATIENT").build();
+
+        when(appointmentRepository.findUserAppointments("user123")).thenReturn(List.of(live, movedWhileReading));
+        when(appointmentArchiveRepository.findPatientAppointments("user123"))
+                .thenReturn(List.of(archived, movedWhileReading));
+
+        assertThat(getUserAppointments.getUserAppointments("user123"))
+                .containsExactly(archived, live, movedWhileReading);
+    }
 
-        assertThat(appt.getId()).isEqualTo(10L);
-        assertThat(appt.getTherapistKeycloakId()).isEqualTo("therapistX");
-        assertThat(appt.getPatientKeycloakId()).isEqualTo("user123");
-        assertThat(appt.getStatus()).isEqualTo("BOOKED");
-        assertThat(appt.getNotes()).isEqualTo("notes");
+    // --------------------------------------------------------
+    // TEST 5 — A page spans both sources and its cursor follows the merged order
+    // --------------------------------------------------------
+    @Test
+    void getUserAppointmentsPage_ShouldMergeArchivedAppointments() {
+        LocalDateTime from = LocalDateTime.of(2030, 3, 4, 0, 0);
+        LocalDateTime to = from.plusMonths(1);
+        Appointment archived = Appointment.builder().id(1L).startTime(from.plusHours(9)).build();
+        Appointment live = Appointment.builder().id(5L).startTime(from.plusHours(10)).build();
+        Appointment laterArchived = Appointment.builder().id(2L).startTime(from.plusHours(11)).build();
+
+        when(appointmentRepository.findUserPage("user123", from, Long.MIN_VALUE, to, Limit.of(3)))
+                .thenReturn(List.of(live));
+        when(appointmentArchiveRepository.findPatientPage("user123", from, Long.MIN_VALUE, to, Limit.of(3)))
+                .thenReturn(List.of(archived, laterArchived));
+
+        AppointmentPage page = getUserAppointments.getUserAppointments("user123", from, to, null, 2);
+
+        assertThat(page.getAppointments()).containsExactly(archived, live);
+        assertThat(page.getNextCursor()).isEqualTo(new PageCursor(live.getStartTime(), live.getId()).encode());
     }
 }
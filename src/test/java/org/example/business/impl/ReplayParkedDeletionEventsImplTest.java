@@ -0,0 +1,99 @@
+package org.example.business.impl;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import org.example.config.RabbitMQConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class ReplayParkedDeletionEventsImplTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private Channel channel;
+    private ReplayParkedDeletionEventsImpl replayParkedDeletionEvents;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        channel = mock(Channel.class);
+        when(rabbitTemplate.execute(any(ChannelCallback.class)))
+                .thenAnswer(inv -> ((ChannelCallback<?>) inv.getArgument(0)).doInRabbit(channel));
+        replayParkedDeletionEvents = new ReplayParkedDeletionEventsImpl(rabbitTemplate, Duration.ofSeconds(1));
+    }
+
+    private GetResponse parked(long deliveryTag) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .messageId("m" + deliveryTag)
+                .headers(Map.of(RabbitMQConfig.RETRY_COUNT_HEADER, 4,
+                        RabbitMQConfig.PARKED_REASON_HEADER, "db down",
+                        "x-custom", "kept"))
+                .build();
+        Envelope envelope = new Envelope(deliveryTag, false, "", RabbitMQConfig.SCHEDULING_DELETION_PARKING_LOT_QUEUE);
+        return new GetResponse(envelope, properties, "{}".getBytes(), 0);
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — Parked events go back to the main queue with a fresh retry budget
+    // --------------------------------------------------------
+    @Test
+    void replay_ShouldRepublishAndAcknowledgeUntilEmpty() throws Exception {
+        when(channel.basicGet(RabbitMQConfig.SCHEDULING_DELETION_PARKING_LOT_QUEUE, false))
+                .thenReturn(parked(1), parked(2), null);
+
+        int replayed = replayParkedDeletionEvents.replay(100);
+
+        assertThat(replayed).isEqualTo(2);
+        ArgumentCaptor<AMQP.BasicProperties> properties = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+        verify(channel, times(2)).basicPublish(eq(""), eq(RabbitMQConfig.SCHEDULING_DELETION_QUEUE),
+                properties.capture(), any(byte[].class));
+        assertThat(properties.getValue().getHeaders())
+                .containsOnlyKeys("x-custom");
+        InOrder order = inOrder(channel);
+        order.verify(channel).waitForConfirmsOrDie(1000L);
+        order.verify(channel).basicAck(2L, true);
+        verify(channel, never()).basicAck(1L, false);
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — Nothing is acknowledged when the broker does not confirm
+    // --------------------------------------------------------
+    @Test
+    void replay_ShouldNotAcknowledge_WhenPublishIsNotConfirmed() throws Exception {
+        when(channel.basicGet(RabbitMQConfig.SCHEDULING_DELETION_PARKING_LOT_QUEUE, false))
+                .thenReturn(parked(1), null);
+        doThrow(new TimeoutException("no confirm")).when(channel).waitForConfirmsOrDie(anyLong());
+
+        assertThatThrownBy(() -> replayParkedDeletionEvents.replay(100))
+                .isInstanceOf(TimeoutException.class);
+
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — Replay size is bounded
+    // --------------------------------------------------------
+    @Test
+    void replay_ShouldThrow_WhenMaxOutOfRange() {
+        assertThatThrownBy(() ->
+                replayParkedDeletionEvents.replay(0)
+        ).isInstanceOf(RuntimeException.class)
+                .hasMessage("Can replay between 1 and 10000 events at once");
+
+        verifyNoInteractions(rabbitTemplate);
+    }
+}
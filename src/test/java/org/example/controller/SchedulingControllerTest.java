@@ -0,0 +1,110 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.business.*;
+import org.example.business.dto.AppointmentResponse;
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SchedulingControllerTest {
+
+    private GetUserAppointments getUserAppointments;
+    private GetUserAppointmentChanges getUserAppointmentChanges;
+    private SchedulingController controller;
+
+    @BeforeEach
+    void setUp() {
+        getUserAppointments = mock(GetUserAppointments.class);
+        getUserAppointmentChanges = mock(GetUserAppointmentChanges.class);
+        controller = new SchedulingController(mock(CreateAppointment.class), mock(BulkCreateAppointments.class),
+                mock(GetAvailableSlots.class), mock(AvailableSlotsResponseCache.class), mock(BookAppointment.class),
+                mock(CancelAppointment.class), getUserAppointments, getUserAppointmentChanges,
+                mock(ExportUserAppointments.class), mock(GetFreeBusy.class), new ObjectMapper());
+        when(getUserAppointments.getUserAppointments("user1")).thenReturn(List.of());
+    }
+
+    private ResponseEntity<List<AppointmentResponse>> getList(MockHttpServletRequest request, MockHttpServletResponse response) {
+        return controller.getUserAppointmentsList("user1", new ServletWebRequest(request, response));
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — A second change within the same second is never answered with 304
+    // --------------------------------------------------------
+    @Test
+    void getUserAppointmentsList_ShouldNotAnswer304_ForChangeInSameSecond() {
+        LocalDateTime firstChange = LocalDateTime.of(2030, 1, 1, 12, 0, 0, 100_000_000);
+        LocalDateTime secondChange = firstChange.plusNanos(500_000_000);
+
+        when(getUserAppointmentChanges.getLastModified("user1")).thenReturn(firstChange);
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        getList(new MockHttpServletRequest("GET", "/user"), firstResponse);
+        String firstETag = firstResponse.getHeader(HttpHeaders.ETAG);
+        assertThat(firstETag).isNotNull();
+        assertThat(firstResponse.getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+
+        when(getUserAppointmentChanges.getLastModified("user1")).thenReturn(secondChange);
+
+        // A client revalidating by date only, within the same second
+        MockHttpServletRequest byDate = new MockHttpServletRequest("GET", "/user");
+        byDate.addHeader(HttpHeaders.IF_MODIFIED_SINCE,
+                Date.from(firstChange.atZone(ZoneId.systemDefault()).toInstant()));
+        assertThat(getList(byDate, new MockHttpServletResponse())).isNotNull();
+
+        // A client revalidating with the ETag of the first response
+        MockHttpServletRequest byETag = new MockHttpServletRequest("GET", "/user");
+        byETag.addHeader(HttpHeaders.IF_NONE_MATCH, firstETag);
+        MockHttpServletResponse changedResponse = new MockHttpServletResponse();
+        assertThat(getList(byETag, changedResponse)).isNotNull();
+        assertThat(changedResponse.getHeader(HttpHeaders.ETAG)).isNotEqualTo(firstETag);
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — An unchanged list is answered with 304 without fetching it
+    // --------------------------------------------------------
+    @Test
+    void getUserAppointmentsList_ShouldAnswer304_WhenETagMatches() {
+        when(getUserAppointmentChanges.getLastModified("user1")).thenReturn(LocalDateTime.of(2030, 1, 1, 12, 0));
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        getList(new MockHttpServletRequest("GET", "/user"), firstResponse);
+
+        MockHttpServletRequest revalidate = new MockHttpServletRequest("GET", "/user");
+        revalidate.addHeader(HttpHeaders.IF_NONE_MATCH, firstResponse.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+
+        assertThat(getList(revalidate, notModified)).isNull();
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        verify(getUserAppointments, times(1)).getUserAppointments("user1");
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — The body carries the public fields only, not the domain's version
+    // --------------------------------------------------------
+    @Test
+    void getUserAppointmentsList_ShouldNotExposeVersion() throws Exception {
+        when(getUserAppointmentChanges.getLastModified("user1")).thenReturn(LocalDateTime.of(2030, 1, 1, 12, 0));
+        when(getUserAppointments.getUserAppointments("user1")).thenReturn(List.of(Appointment.builder()
+                .id(1L).therapistKeycloakId("therapist123").patientKeycloakId("user1")
+                .status(AppointmentStatus.BOOKED).version(7L).role("PATIENT").build()));
+
+        ResponseEntity<List<AppointmentResponse>> response =
+                getList(new MockHttpServletRequest("GET", "/user"), new MockHttpServletResponse());
+
+        String json = new ObjectMapper().findAndRegisterModules().writeValueAsString(response.getBody());
+        assertThat(json).doesNotContain("version").contains("\"role\":\"PATIENT\"");
+    }
+}
@@ -0,0 +1,211 @@
+package org.example.persistance;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.example.business.ExportUserAppointments;
+import org.example.business.GetUserAppointments;
+import org.example.business.impl.ExportUserAppointmentsImpl;
+import org.example.business.impl.GetUserAppointmentsImpl;
+import org.example.domain.Appointment;
+import org.example.domain.AppointmentStatus;
+import org.example.persistance.entity.AppointmentEntity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The user-list queries against a real Postgres: the role CASE, the patient-or-therapist
+ * filter and the ordering live in the queries, and schema.sql only runs on Postgres.
+ * Each test runs in a transaction that is rolled back.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({GetUserAppointmentsImpl.class, ExportUserAppointmentsImpl.class})
+class AppointmentRepositoryTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 3, 4, 0, 0);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentTombstoneRepository appointmentTombstoneRepository;
+
+    @Autowired
+    private GetUserAppointments getUserAppointments;
+
+    @Autowired
+    private ExportUserAppointments exportUserAppointments;
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    private AppointmentEntity save(String therapistId, String patientId, AppointmentStatus status, int hour) {
+        return appointmentRepository.saveAndFlush(AppointmentEntity.builder()
+                .therapistKeycloakId(therapistId)
+                .patientKeycloakId(patientId)
+                .status(status)
+                .startTime(DAY.plusHours(hour))
+                .endTime(DAY.plusHours(hour).plusMinutes(50))
+                .notes("notes " + hour)
+                .build());
+    }
+
+    // --------------------------------------------------------
+    // TEST 1 — User as patient only, ordered by start time
+    // --------------------------------------------------------
+    @Test
+    void findUserAppointments_ShouldReturnAppointments_WhenUserIsPatient() {
+        AppointmentEntity later = save("therapist123", "user123", AppointmentStatus.BOOKED, 11);
+        AppointmentEntity earlier = save("therapist456", "user123", AppointmentStatus.COMPLETED, 9);
+        save("therapist123", "patient789", AppointmentStatus.BOOKED, 13);
+
+        List<Appointment> result = appointmentRepository.findUserAppointments("user123");
+
+        assertThat(result).extracting(Appointment::getId).containsExactly(earlier.getId(), later.getId());
+        assertThat(result).extracting(Appointment::getRole).containsOnly("PATIENT");
+    }
+
+    // --------------------------------------------------------
+    // TEST 2 — User as therapist only: booked slots with a patient
+    // --------------------------------------------------------
+    @Test
+    void findUserAppointments_ShouldReturnBookedSlots_WhenUserIsTherapist() {
+        AppointmentEntity booked = save("user123", "patient456", AppointmentStatus.BOOKED, 10);
+        save("user123", null, AppointmentStatus.AVAILABLE, 11);
+        save("user123", null, AppointmentStatus.CANCELLED, 12);
+
+        List<Appointment> result = appointmentRepository.findUserAppointments("user123");
+
+        assertThat(result).hasSize(1);
+        Appointment appointment = result.get(0);
+        assertThat(appointment.getId()).isEqualTo(booked.getId());
+        assertThat(appointment.getTherapistKeycloakId()).isEqualTo("user123");
+        assertThat(appointment.getPatientKeycloakId()).isEqualTo("patient456");
+        assertThat(appointment.getRole()).isEqualTo("THERAPIST");
+    }
+
+    // --------------------------------------------------------
+    // TEST 3 — A slot the user booked with themselves appears once, as patient
+    // --------------------------------------------------------
+    @Test
+    void findUserAppointments_ShouldReturnEachAppointmentOnce() {
+        AppointmentEntity own = save("user123", "user123", AppointmentStatus.BOOKED, 9);
+        AppointmentEntity asTherapist = save("user123", "patient456", AppointmentStatus.BOOKED, 10);
+        AppointmentEntity asPatient = save("therapist123", "user123", AppointmentStatus.BOOKED, 10);
+
+        List<Appointment> result = appointmentRepository.findUserAppointments("user123");
+
+        // Same start time: ties are broken by id
+        assertThat(result).extracting(Appointment::getId)
+                .containsExactly(own.getId(), asTherapist.getId(), asPatient.getId());
+        assertThat(result).extracting(Appointment::getRole)
+                .containsExactly("PATIENT", "THERAPIST", "PATIENT");
+    }
+
+    // --------------------------------------------------------
+    // TEST 4 — Every column is projected into the domain type
+    // --------------------------------------------------------
+    @Test
+    void findUserAppointments_ShouldMapAllColumns() {
+        AppointmentEntity saved = save("therapistX", "user123", AppointmentStatus.BOOKED, 10);
+
+        Appointment appointment = appointmentRepository.findUserAppointments("user123").get(0);
+
+        assertThat(appointment.getId()).isEqualTo(saved.getId());
+        assertThat(appointment.getTherapistKeycloakId()).isEqualTo("therapistX");
+        assertThat(appointment.getPatientKeycloakId()).isEqualTo("user123");
+        assertThat(appointment.getStartTime()).isEqualTo(DAY.plusHours(10));
+        assertThat(appointment.getEndTime()).isEqualTo(DAY.plusHours(10).plusMinutes(50));
+        assertThat(appointment.getStatus()).isEqualTo(AppointmentStatus.BOOKED);
+        assertThat(appointment.getNotes()).isEqualTo("notes 10");
+        // Postgres keeps microseconds
+        assertThat(appointment.getCreatedAt()).isCloseTo(saved.getCreatedAt(), within(1, ChronoUnit.MICROS));
+        assertThat(appointment.getUpdatedAt()).isCloseTo(saved.getUpdatedAt(), within(1, ChronoUnit.MICROS));
+        assertThat(appointment.getVersion()).isEqualTo(saved.getVersion());
+    }
+
+    // --------------------------------------------------------
+    // TEST 5 — Page and export use the same membership and order as the list
+    // --------------------------------------------------------
+    @Test
+    void findUserPageAndStream_ShouldMatchList() {
+        save("therapist123", "user123", AppointmentStatus.BOOKED, 9);
+        AppointmentEntity second = save("user123", "patient456", AppointmentStatus.BOOKED, 10);
+        save("user123", null, AppointmentStatus.AVAILABLE, 11);
+        AppointmentEntity third = save("therapist456", "user123", AppointmentStatus.CANCELLED, 12);
+
+        List<Appointment> list = appointmentRepository.findUserAppointments("user123");
+        List<Appointment> page = appointmentRepository.findUserPage("user123",
+                list.get(0).getStartTime(), list.get(0).getId(), DAY.plusDays(1), Limit.of(10));
+        List<Appointment> streamed;
+        try (Stream<Appointment> stream = appointmentRepository.streamUserAppointments("user123")) {
+            streamed = stream.toList();
+        }
+
+        assertThat(list).hasSize(3);
+        assertThat(page).extracting(Appointment::getId).containsExactly(second.getId(), third.getId());
+        assertThat(streamed).isEqualTo(list);
+    }
+
+    // --------------------------------------------------------
+    // TEST 6 — An archived appointment stays in the patient's history
+    // --------------------------------------------------------
+    @Test
+    void archiveEnded_ShouldKeepAppointmentInPatientHistory() {
+        AppointmentEntity finished = save("therapist123", "user123", AppointmentStatus.COMPLETED, 9);
+        AppointmentEntity booked = save("therapist123", "user123", AppointmentStatus.BOOKED, 10);
+
+        assertThat(appointmentRepository.archiveEnded(DAY.plusDays(1), 10, LocalDateTime.now())).isEqualTo(1);
+        assertThat(appointmentRepository.findUserAppointments("user123"))
+                .extracting(Appointment::getId).containsExactly(booked.getId());
+
+        List<Appointment> list = getUserAppointments.getUserAppointments("user123");
+        assertThat(list).extracting(Appointment::getId).containsExactly(finished.getId(), booked.getId());
+        assertThat(list.get(0).getStatus()).isEqualTo(AppointmentStatus.COMPLETED);
+        assertThat(list.get(0).getRole()).isEqualTo("PATIENT");
+
+        assertThat(getUserAppointments.getUserAppointments("user123", DAY, DAY.plusDays(1), null, 10)
+                .getAppointments()).isEqualTo(list);
+        List<Appointment> exported = new ArrayList<>();
+        exportUserAppointments.export("user123", exported::add);
+        assertThat(exported).isEqualTo(list);
+
+        // Delta sync must not report it as removed
+        assertThat(appointmentTombstoneRepository.findRemovedAppointmentIds("user123", DAY.minusYears(1))).isEmpty();
+    }
+}